@@ -0,0 +1,87 @@
+package com.minwoo.querydsl.benchmark;
+
+import com.minwoo.querydsl.entity.Member;
+import com.minwoo.querydsl.entity.Team;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// member 대량 insert : jdbc batch 없이 1건씩(jdbcBatchSize=1) vs hibernate jdbc batch(pooled-lo sequence id + batch_size)
+// 1회 실행 = inserts 건 persist, FLUSH_SIZE 건마다 transaction commit(flush/clear)
+// mysql에서는 rewriteBatchedStatements=true로 batch가 multi-row insert로 바뀌어 차이가 더 커짐(MemberDatabase의 bench.datasource.* 참고)
+// ./gradlew jmh -Pjmh.includes=InsertBenchmark -Pjmh.rows=10000
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Thread)
+public class InsertBenchmark {
+
+    private static final int FLUSH_SIZE = 1000;
+
+    @Param({"1000000"})
+    public int inserts;
+
+    @Param({"1", "100"})
+    public int jdbcBatchSize;
+
+    private MemberSession session;
+    private TransactionTemplate transaction;
+    private JdbcTemplate jdbcTemplate;
+    private int seededRows;
+
+    @Setup(Level.Trial)
+    public void setUp(MemberSession session) {
+        this.session = session;
+        this.transaction = new TransactionTemplate(session.getBean(PlatformTransactionManager.class));
+        this.jdbcTemplate = session.getBean(JdbcTemplate.class);
+        this.seededRows = session.database.rows;
+    }
+
+    @Benchmark
+    public int insert() {
+        for (int from = 0; from < inserts; from += FLUSH_SIZE) {
+            int start = from;
+            transaction.executeWithoutResult(status -> {
+                session.em.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+
+                // clear 후에는 이전 team이 detach 되므로 transaction마다 다시 reference
+                Team[] teams = new Team[MemberDatabase.TEAM_COUNT];
+                for (int i = start; i < Math.min(start + FLUSH_SIZE, inserts); i++) {
+                    int teamIndex = i % MemberDatabase.TEAM_COUNT;
+                    if(teams[teamIndex] == null) {
+                        teams[teamIndex] = session.em.getReference(Team.class, teamIndex + 1L);
+                    }
+                    session.em.persist(new Member("insert" + i, i % MemberDatabase.MAX_AGE, teams[teamIndex]));
+                }
+                session.em.flush();
+                session.em.clear();
+            });
+        }
+        return inserts;
+    }
+
+    // 다음 iteration이 같은 크기의 table에서 시작하도록 insert한 member만 삭제
+    @TearDown(Level.Iteration)
+    public void deleteInserted() {
+        jdbcTemplate.update("delete from member where member_id > ?", seededRows);
+    }
+
+}
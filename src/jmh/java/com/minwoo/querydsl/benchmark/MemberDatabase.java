@@ -0,0 +1,113 @@
+package com.minwoo.querydsl.benchmark;
+
+import com.minwoo.querydsl.QuerydslApplication;
+import com.minwoo.querydsl.repository.TeamCache;
+import com.minwoo.querydsl.service.TeamStatsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// benchmark 전체에서 공유하는 application context + 내장 db(h2 mysql mode)
+// rows 수만큼 member를 jdbc batch로 미리 적재
+@State(Scope.Benchmark)
+public class MemberDatabase {
+
+    public static final int TEAM_COUNT = 100;
+    public static final int MAX_AGE = 100;
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    ConfigurableApplicationContext context;
+
+    // 기본은 h2, -Dbench.datasource.url(username, password)을 주면 해당 db(mysql 등)로 실행(ddl-auto=create로 table을 다시 만듦)
+    private final String url = System.getProperty("bench.datasource.url");
+
+    @Setup(Level.Trial)
+    public void start() {
+        // yml 보다 우선하도록 command line 인자로 전달
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.profiles.active=bench",
+                        "--spring.datasource.url=" + (url != null ? url : "jdbc:h2:mem:bench" + rows + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"),
+                        "--spring.datasource.driver-class-name=" + (url != null ? "com.mysql.cj.jdbc.Driver" : "org.h2.Driver"),
+                        "--spring.datasource.username=" + System.getProperty("bench.datasource.username", "sa"),
+                        "--spring.datasource.password=" + System.getProperty("bench.datasource.password", ""),
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                        "--decorator.datasource.enabled=false", // p6spy logging 제외
+                        "--member.stream.fetch-size=1000",
+                        "--logging.level.root=warn",
+                        "--logging.level.org.hibernate.sql=warn"
+                );
+
+        seed(context.getBean(JdbcTemplate.class));
+
+        // seed는 jdbc로 직접 넣어 entity event가 없으므로 startup에 load된 team cache와 team_stats를 다시 맞춤
+        context.getBean(TeamCache.class).invalidate();
+        context.getBean(TeamStatsService.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    EntityManagerFactory entityManagerFactory() {
+        return context.getBean(EntityManagerFactory.class);
+    }
+
+    // team{i} / member{i}, age = i % MAX_AGE 로 고르게 분포
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> teams = new ArrayList<>();
+        for (long i = 1; i <= TEAM_COUNT; i++) {
+            teams.add(new Object[]{i, "team" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into team (team_id, name) values (?, ?)", teams);
+
+        List<Object[]> members = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long i = 1; i <= rows; i++) {
+            members.add(new Object[]{i, "member" + i, (int) (i % MAX_AGE), i % TEAM_COUNT + 1});
+
+            if(members.size() == SEED_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", members);
+                members.clear();
+            }
+        }
+
+        if(!members.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", members);
+        }
+
+        // id를 직접 넣었으므로 이후 persist(InsertBenchmark)가 받는 id가 seed와 겹치지 않도록 sequence를 다음 값으로 이동
+        restartSequence(jdbcTemplate, "team_seq", TEAM_COUNT + 1);
+        restartSequence(jdbcTemplate, "member_seq", rows + 1L);
+    }
+
+    // h2는 sequence, mysql은 hibernate가 sequence 대신 만든 table(next_val)
+    private void restartSequence(JdbcTemplate jdbcTemplate, String sequence, long next) {
+        if(url == null) {
+            jdbcTemplate.execute("alter sequence " + sequence + " restart with " + next);
+            return;
+        }
+        jdbcTemplate.update("update " + sequence + " set next_val = ?", next);
+    }
+
+}
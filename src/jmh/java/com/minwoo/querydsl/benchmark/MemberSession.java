@@ -0,0 +1,45 @@
+package com.minwoo.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// benchmark thread마다 EntityManager 하나를 열어 thread에 binding(OSIV와 같은 방식)
+// -> repository bean들의 공유 EntityManager도 같은 영속성 context를 사용
+@State(Scope.Thread)
+public class MemberSession {
+
+    MemberDatabase database;
+    EntityManager em;
+    JPAQueryFactory queryFactory;
+
+    private EntityManagerFactory emf;
+
+    @Setup(Level.Trial)
+    public void open(MemberDatabase database) {
+        this.database = database;
+        this.emf = database.entityManagerFactory();
+        this.em = emf.createEntityManager();
+        this.queryFactory = new JPAQueryFactory(em);
+
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        TransactionSynchronizationManager.unbindResource(emf);
+        em.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return database.getBean(type);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.minwoo.querydsl.benchmark;
+
+import com.minwoo.querydsl.dto.MemberSearchCondition;
+import com.minwoo.querydsl.dto.MemberTeamDto;
+import com.minwoo.querydsl.repository.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.concurrent.TimeUnit;
+
+// paging 방식별 비교 : count query 별도 실행(v2, v3) vs count(*) over() 한번에 조회(v5) vs count 없는 slice(limit + 1)
+// 조건에 해당하는 row가 많을수록(teamName 없음 > team1) count 비용이 커지므로 slice와의 차이가 커짐
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PagingBenchmark {
+
+    @Param({"0", "100"})
+    public int page;
+
+    @Param({"", "team1"})
+    public String teamName;
+
+    private MemberSearchCondition condition;
+    private Pageable pageable;
+    private MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(MemberSession session) {
+        condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        pageable = PageRequest.of(page, 20);
+
+        memberRepository = session.getBean(MemberRepository.class);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> pageSimple() {
+        return memberRepository.searchPageSimple(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> pageComplex() {
+        return memberRepository.searchPageComplex(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> pageParallel() {
+        return memberRepository.searchPageParallel(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> pageWindow() {
+        return memberRepository.searchPageWindow(condition, pageable);
+    }
+
+    @Benchmark
+    public Slice<MemberTeamDto> slice() {
+        return memberRepository.searchSlice(condition, pageable);
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.minwoo.querydsl.benchmark;
+
+import com.minwoo.querydsl.dto.MemberDto;
+import com.minwoo.querydsl.dto.MemberTeamDto;
+import com.minwoo.querydsl.dto.QMemberDto;
+import com.minwoo.querydsl.dto.QMemberTeamDto;
+import com.minwoo.querydsl.repository.LambdaProjections;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.minwoo.querydsl.entity.QMember.member;
+import static com.minwoo.querydsl.entity.QTeam.team;
+
+// QueryDSLTest의 dto 조회 방식별 비교(같은 1000건을 각 방식으로 projection)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    private static final int LIMIT = 1000;
+
+    @Benchmark
+    public List<MemberDto> bean(MemberSession session) {
+        return session.queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fields(MemberSession session) {
+        return session.queryFactory
+                .select(Projections.fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> constructor(MemberSession session) {
+        return session.queryFactory
+                .select(Projections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> lambdaBean(MemberSession session) {
+        return session.queryFactory
+                .select(LambdaProjections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> lambdaConstructor(MemberSession session) {
+        return session.queryFactory
+                .select(LambdaProjections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> queryProjection(MemberSession session) {
+        return session.queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> jpqlNew(MemberSession session) {
+        return session.em
+                .createQuery("select new com.minwoo.querydsl.dto.MemberDto(m.username, m.age) from Member m", MemberDto.class)
+                .setMaxResults(LIMIT)
+                .getResultList();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> queryProjectionWithTeam(MemberSession session) {
+        return session.queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+}
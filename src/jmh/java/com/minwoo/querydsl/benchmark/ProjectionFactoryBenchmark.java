@@ -0,0 +1,122 @@
+package com.minwoo.querydsl.benchmark;
+
+import com.minwoo.querydsl.dto.MemberDto;
+import com.minwoo.querydsl.dto.MemberTeamDto;
+import com.minwoo.querydsl.dto.QMemberTeamDto;
+import com.minwoo.querydsl.dto.UserDto;
+import com.minwoo.querydsl.repository.LambdaProjections;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.minwoo.querydsl.entity.QMember.member;
+import static com.minwoo.querydsl.entity.QTeam.team;
+
+// db 조회 없이 1M row(Object[])를 dto로 만드는 비용만 비교(reflection vs LambdaProjections)
+// 결과 단위는 row/s, allocation은 -prof gc의 gc.alloc.rate.norm(row당 byte)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+@OperationsPerInvocation(ProjectionFactoryBenchmark.ROWS)
+public class ProjectionFactoryBenchmark {
+
+    static final int ROWS = 1_000_000;
+
+    private Object[][] memberRows;
+    private Object[][] memberTeamRows;
+
+    private final FactoryExpression<MemberDto> reflectionBean = Projections.bean(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> reflectionFields = Projections.fields(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> reflectionConstructor = Projections.constructor(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<UserDto> reflectionUserFields = Projections.fields(UserDto.class, member.username.as("name"), member.age);
+    private final FactoryExpression<MemberTeamDto> queryProjection = new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name);
+
+    private final FactoryExpression<MemberDto> lambdaBean = LambdaProjections.bean(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> lambdaFields = LambdaProjections.fields(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<MemberDto> lambdaConstructor = LambdaProjections.constructor(MemberDto.class, member.username, member.age);
+    private final FactoryExpression<UserDto> lambdaUserFields = LambdaProjections.fields(UserDto.class, member.username.as("name"), member.age);
+    private final FactoryExpression<MemberTeamDto> lambdaMemberTeam = LambdaProjections.constructor(MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name);
+
+    @Setup
+    public void setUp() {
+        memberRows = new Object[ROWS][];
+        memberTeamRows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            memberRows[i] = new Object[]{"member" + i, i % 100};
+            memberTeamRows[i] = new Object[]{(long) i, "member" + i, i % 100, (long) (i % 100), "team" + (i % 100)};
+        }
+    }
+
+    @Benchmark
+    public void reflectionBean(Blackhole bh) {
+        project(reflectionBean, memberRows, bh);
+    }
+
+    @Benchmark
+    public void lambdaBean(Blackhole bh) {
+        project(lambdaBean, memberRows, bh);
+    }
+
+    @Benchmark
+    public void reflectionFields(Blackhole bh) {
+        project(reflectionFields, memberRows, bh);
+    }
+
+    @Benchmark
+    public void lambdaFields(Blackhole bh) {
+        project(lambdaFields, memberRows, bh);
+    }
+
+    @Benchmark
+    public void reflectionConstructor(Blackhole bh) {
+        project(reflectionConstructor, memberRows, bh);
+    }
+
+    @Benchmark
+    public void lambdaConstructor(Blackhole bh) {
+        project(lambdaConstructor, memberRows, bh);
+    }
+
+    @Benchmark
+    public void reflectionUserFields(Blackhole bh) {
+        project(reflectionUserFields, memberRows, bh);
+    }
+
+    @Benchmark
+    public void lambdaUserFields(Blackhole bh) {
+        project(lambdaUserFields, memberRows, bh);
+    }
+
+    @Benchmark
+    public void queryProjectionMemberTeam(Blackhole bh) {
+        project(queryProjection, memberTeamRows, bh);
+    }
+
+    @Benchmark
+    public void lambdaMemberTeam(Blackhole bh) {
+        project(lambdaMemberTeam, memberTeamRows, bh);
+    }
+
+    private static void project(FactoryExpression<?> projection, Object[][] rows, Blackhole bh) {
+        for (Object[] row : rows) {
+            bh.consume(projection.newInstance(row));
+        }
+    }
+
+}
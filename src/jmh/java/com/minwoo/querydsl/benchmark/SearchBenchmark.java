@@ -0,0 +1,85 @@
+package com.minwoo.querydsl.benchmark;
+
+import com.minwoo.querydsl.dto.MemberSearchCondition;
+import com.minwoo.querydsl.dto.MemberTeamDto;
+import com.minwoo.querydsl.entity.Member;
+import com.minwoo.querydsl.repository.MemberJpaRepository;
+import com.minwoo.querydsl.repository.MemberQueryRepository;
+import com.minwoo.querydsl.repository.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.minwoo.querydsl.entity.QMember.member;
+
+// 동적 query 방식별 비교 : teamName + age 범위 조건(전체의 1/1000 정도가 조회됨)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    private MemberSession session;
+    private MemberSearchCondition condition;
+    private MemberJpaRepository memberJpaRepository;
+    private MemberQueryRepository memberQueryRepository;
+    private MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(MemberSession session) {
+        this.session = session;
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(29);
+
+        memberJpaRepository = session.getBean(MemberJpaRepository.class);
+        memberQueryRepository = session.getBean(MemberQueryRepository.class);
+        memberRepository = session.getBean(MemberRepository.class);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> booleanBuilder() {
+        return memberJpaRepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> whereParam() {
+        return memberJpaRepository.searchWhere(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> queryRepository() {
+        return memberQueryRepository.search(condition);
+    }
+
+    // MemberSearchQueryCache 사용(shape별 jpql 재사용)
+    @Benchmark
+    public List<MemberTeamDto> cachedShape() {
+        return memberRepository.search(condition);
+    }
+
+    // left join이 불가하여 team 조건은 묵시적 join, 결과는 entity
+    @Benchmark
+    public Iterable<Member> predicateExecutor() {
+        Iterable<Member> members = memberRepository.findAll(member.team.name.eq(condition.getTeamName())
+                                                                 .and(member.age.between(condition.getAgeGoe(), condition.getAgeLoe())));
+        session.em.clear(); // entity가 영속성 context에 누적되지 않도록
+        return members;
+    }
+
+}
@@ -2,8 +2,10 @@ package com.minwoo.querydsl;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // replica 지연 확인, team 집계 snapshot 갱신
 public class QuerydslApplication {
 
     public static void main(String[] args) {
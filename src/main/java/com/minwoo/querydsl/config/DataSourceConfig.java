@@ -0,0 +1,67 @@
+package com.minwoo.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// member.datasource.replicas가 설정된 경우에만 사용(없으면 boot 기본 datasource 하나로 동작)
+// hibernate -> lazyRoutingDataSource -> p6spy -> replicaRoutingDataSource -> primary/replica pool 순서
+// p6spy는 connection을 받자마자 getMetaData()를 호출하므로 lazy proxy 안쪽에 있어야 readOnly가 정해진 뒤 routing 됨
+// (lazyRoutingDataSource는 decorator.datasource.exclude-beans로 p6spy 대상에서 제외)
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(prefix = "member.datasource", name = "replicas[0].url")
+public class DataSourceConfig {
+
+    private ReplicaRoutingDataSource routingDataSource; // p6spy로 감싸기 전 원본(지연 확인, 종료 시 pool close)
+
+    @Bean
+    DataSource replicaRoutingDataSource(DataSourceProperties properties, ReplicaProperties replicaProperties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (ReplicaProperties.Replica replica : replicaProperties.getReplicas()) {
+            HikariDataSource replicaDataSource = new HikariDataSource();
+            replicaDataSource.setPoolName("replica-" + replicas.size());
+            replicaDataSource.setJdbcUrl(replica.getUrl());
+            replicaDataSource.setUsername(replica.getUsername());
+            replicaDataSource.setPassword(replica.getPassword());
+            replicaDataSource.setDriverClassName(properties.determineDriverClassName());
+            replicaDataSource.setReadOnly(true);
+            replicas.add(replicaDataSource);
+        }
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, replicaProperties.getLagQuery(), replicaProperties.getMaxLag());
+        return routingDataSource;
+    }
+
+    // 실제 connection은 첫 query 시점에 가져옴(그 전에 transaction readOnly 여부가 정해짐)
+    @Bean
+    @Primary
+    DataSource lazyRoutingDataSource(DataSourceProperties properties, ReplicaProperties replicaProperties) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource(properties, replicaProperties));
+    }
+
+    @Scheduled(fixedDelayString = "${member.datasource.lag-check-interval:5000}")
+    void checkReplicaLag() {
+        routingDataSource.checkReplicas();
+    }
+
+    @PreDestroy
+    void close() {
+        routingDataSource.close();
+    }
+
+}
@@ -1,10 +1,25 @@
 package com.minwoo.querydsl.config;
 
+import com.minwoo.querydsl.metrics.LazyLoadDetector;
+import com.minwoo.querydsl.repository.TableVersions;
+import com.minwoo.querydsl.repository.TeamStatsListener;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 @Configuration
 public class JpaConfig {
 
@@ -13,4 +28,33 @@ public class JpaConfig {
         return new JPAQueryFactory(em);
     }
 
+    // hibernate event listener 등록(지연 로딩 감지, team_stats 갱신)
+    // integrator_provider는 하나만 설정되므로 listener를 추가할 때는 여기에 등록
+    @Bean
+    HibernatePropertiesCustomizer eventListenersCustomizer(LazyLoadDetector lazyLoadDetector, TeamStatsListener teamStatsListener) {
+        Integrator integrator = new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+                EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+                registry.appendListeners(EventType.LOAD, lazyLoadDetector);
+                registry.appendListeners(EventType.INIT_COLLECTION, lazyLoadDetector);
+                registry.appendListeners(EventType.POST_INSERT, teamStatsListener);
+                registry.appendListeners(EventType.POST_UPDATE, teamStatsListener);
+                registry.appendListeners(EventType.POST_DELETE, teamStatsListener);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+
+        return properties -> properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(integrator));
+    }
+
+    // 실행되는 insert/update/delete sql(bulk 포함)로 table version 증가
+    @Bean
+    HibernatePropertiesCustomizer tableVersionsCustomizer(TableVersions tableVersions) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, tableVersions);
+    }
+
 }
@@ -0,0 +1,32 @@
+package com.minwoo.querydsl.config;
+
+import com.minwoo.querydsl.metrics.JdbcMetricsInterceptor;
+import com.minwoo.querydsl.metrics.LazyLoadInterceptor;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final JdbcMetricsInterceptor jdbcMetricsInterceptor;
+    private final LazyLoadInterceptor lazyLoadInterceptor;
+
+    // repository에 붙은 @Timed 처리(class, method tag로 method별 latency 기록)
+    @Bean
+    TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(jdbcMetricsInterceptor);
+        registry.addInterceptor(lazyLoadInterceptor);
+    }
+
+}
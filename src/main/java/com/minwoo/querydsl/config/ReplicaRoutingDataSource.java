@@ -0,0 +1,118 @@
+package com.minwoo.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// readOnly transaction은 replica(round robin), 그 외는 primary로 connection을 가져옴
+// 지연이 maxLag을 넘었거나 접속이 안 되는 replica는 제외하고, 사용 가능한 replica가 없으면 primary에서 읽음
+// transaction의 readOnly 여부가 정해진 뒤 connection을 가져와야 하므로 LazyConnectionDataSourceProxy로 감싸서 사용
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> replicas;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile List<String> availableReplicas;
+    private ReplicaRoutingDataSource availabilitySource;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaList, String lagQuery, Duration maxLag) {
+        this.replicas = new HashMap<>();
+        for (int i = 0; i < replicaList.size(); i++) {
+            replicas.put("replica-" + i, replicaList.get(i));
+        }
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.availableReplicas = List.copyOf(replicas.keySet());
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if(!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+
+        List<String> available = availabilitySource != null ? availabilitySource.getAvailableReplicas() : availableReplicas;
+        if(available.isEmpty()) {
+            return PRIMARY;
+        }
+
+        return available.get(Math.floorMod(next.getAndIncrement(), available.size()));
+    }
+
+    // DataSourceConfig에서 주기적으로 호출
+    public void checkReplicas() {
+        List<String> available = new ArrayList<>();
+        replicas.forEach((key, dataSource) -> {
+            if(isFresh(key, dataSource)) {
+                available.add(key);
+            }
+        });
+
+        if(available.size() != availableReplicas.size()) {
+            log.info("available replicas changed : {} -> {}", availableReplicas, available);
+        }
+        availableReplicas = List.copyOf(available);
+    }
+
+    // 같은 replica 구성(replica-0, replica-1 ...)의 다른 pool 묶음이 지연 확인 없이 source와 같은 replica를 사용(CountQueryExecutor)
+    public void shareAvailability(ReplicaRoutingDataSource source) {
+        this.availabilitySource = source;
+    }
+
+    public List<String> getAvailableReplicas() {
+        return availableReplicas;
+    }
+
+    public void close() {
+        getResolvedDataSources().values().forEach(dataSource -> {
+            if(dataSource instanceof HikariDataSource hikariDataSource) {
+                hikariDataSource.close();
+            }
+        });
+    }
+
+    private boolean isFresh(String key, DataSource dataSource) {
+        if(lagQuery == null) {
+            return true;
+        }
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+
+            if(!rs.next()) {
+                return false;
+            }
+
+            long lagSeconds = rs.getLong(1);
+            return !rs.wasNull() && lagSeconds <= maxLag.toSeconds(); // null : 복제 중단
+        } catch (SQLException e) {
+            log.warn("replica {} lag check failed : {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.minwoo.querydsl.controller;
+
+import com.minwoo.querydsl.dto.MemberSearchCondition;
+import com.minwoo.querydsl.dto.SearchPlan;
+import com.minwoo.querydsl.service.SearchPlanService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// 운영 진단용(index 누락 확인 등), 인증이 없고 조회 sql을 실제로 실행하므로 member.diagnostics.enabled=true 일 때만 등록
+// 켜는 경우에도 내부망/관리 port 등 외부에서 접근할 수 없는 곳에서만 사용
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "member.diagnostics", name = "enabled", havingValue = "true")
+public class DiagnosticsController {
+
+    private final SearchPlanService searchPlanService;
+
+    // ex) /diagnostics/member-search-plans?username=member7&teamName=teamB, fullScan=true인 항목 확인
+    @GetMapping("/diagnostics/member-search-plans")
+    public List<SearchPlan> memberSearchPlans(MemberSearchCondition sample) {
+        return searchPlanService.explainAll(sample);
+    }
+
+}
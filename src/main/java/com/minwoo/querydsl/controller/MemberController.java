@@ -1,15 +1,29 @@
 package com.minwoo.querydsl.controller;
 
+import com.minwoo.querydsl.dto.CursorSlice;
 import com.minwoo.querydsl.dto.MemberSearchCondition;
 import com.minwoo.querydsl.dto.MemberTeamDto;
 import com.minwoo.querydsl.repository.MemberJpaRepository;
 import com.minwoo.querydsl.repository.MemberRepository;
+import com.minwoo.querydsl.repository.TableVersions;
+import com.minwoo.querydsl.service.MemberCsvImportService;
+import com.minwoo.querydsl.service.MemberExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -18,20 +32,96 @@ public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final MemberCsvImportService memberCsvImportService;
+    private final TableVersions tableVersions;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
         return memberJpaRepository.searchWhere(condition);
     }
 
+    // v1과 같은 조건이지만 전체를 list로 모으지 않고 한 줄씩 streaming(ndjson)
+    @GetMapping("/v1/members/stream")
+    public void streamMemberV1(MemberSearchCondition condition, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        memberExportService.writeNdjson(condition, response.getOutputStream());
+    }
+
+    // 여러 조건(화면 widget별 조회 등)을 한 번의 요청/query로 처리, 응답은 요청 조건 순서대로(최대 50개, 넘으면 400)
+    @PostMapping("/v1/members/batch")
+    public List<List<MemberTeamDto>> searchMemberBatchV1(@RequestBody List<MemberSearchCondition> conditions) {
+        return memberRepository.searchBatch(conditions);
+    }
+
+    // csv(username,age,team_name) 대량 등록, body를 읽으면서 batch 단위로 insert(파일 전체를 메모리에 올리지 않음)
+    // 실패한 batch/줄은 건너뛰고 응답의 errors에 line 범위와 함께 담김
+    @PostMapping(value = "/v1/members/import", consumes = "text/csv")
+    public MemberCsvImportService.Result importMemberV1(InputStream body,
+                                                        @RequestParam(defaultValue = "true") boolean header) throws IOException {
+        return memberCsvImportService.importCsv(body, header);
+    }
+
+    // 무한 scroll용 : total 없이 hasNext만(count query 없음)
+    @GetMapping("/v1/members/slice")
+    public Slice<MemberTeamDto> searchMemberSlice(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchSlice(condition, pageable);
+    }
+
     @GetMapping("/v2/members")
-    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+        if(request.checkNotModified(etag("/v2/members", condition, pageable))) {
+            return null; // 304, db 조회 없음
+        }
         return memberRepository.searchPageSimple(condition, pageable);
     }
 
     @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition,
+                                              @RequestParam(defaultValue = "false") boolean parallelCount,
+                                              Pageable pageable,
+                                              WebRequest request) {
+        if(request.checkNotModified(etag("/v3/members", condition, pageable))) {
+            return null;
+        }
+
+        // parallelCount=true : count query를 contents query와 동시에 실행
+        if(parallelCount) {
+            return memberRepository.searchPageParallel(condition, pageable);
+        }
         return memberRepository.searchPageComplex(condition, pageable);
     }
 
+    @GetMapping("/v4/members")
+    public CursorSlice<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+                                                    @RequestParam(required = false) String cursor,
+                                                    Pageable pageable) {
+        return memberRepository.searchByCursor(condition, cursor, pageable);
+    }
+
+    // count(*) over()로 한 번에 조회 : 조건이 넓으면 v2/v3보다 약 100배 느림(1M rows 측정), 선택적인 조건에서만 사용
+    // 기본 목록 화면은 v2/v3/v6 사용
+    @GetMapping("/v5/members")
+    public Page<MemberTeamDto> searchMemberV5(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchPageWindow(condition, pageable);
+    }
+
+    // 목록 화면용 : total은 통계 기반 추정값(응답의 exact=false), 정확한 값이 필요하면 exact=true
+    @GetMapping("/v6/members")
+    public Page<MemberTeamDto> searchMemberV6(MemberSearchCondition condition,
+                                              @RequestParam(defaultValue = "false") boolean exact,
+                                              Pageable pageable) {
+        return memberRepository.searchPageEstimated(condition, pageable, exact);
+    }
+
+    // 같은 조건/페이지이고 member, team table version이 그대로면 같은 ETag -> If-None-Match가 일치하면 304
+    // version은 조회 전에 읽으므로 조회 도중 변경이 commit되면 다음 요청에서 ETag가 달라짐
+    // version은 instance별(TableVersions)이므로 여러 instance 운영 시 다른 instance의 변경은 반영되지 않음
+    private String etag(String path, MemberSearchCondition condition, Pageable pageable) {
+        String key = path + '|' + condition + '|' + pageable
+                + '|' + tableVersions.get("member") + '|' + tableVersions.get("team");
+        return "W/\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
 }
@@ -0,0 +1,45 @@
+package com.minwoo.querydsl.controller;
+
+import com.minwoo.querydsl.dto.TeamAgeStats;
+import com.minwoo.querydsl.dto.TeamStatsDto;
+import com.minwoo.querydsl.repository.TeamCache;
+import com.minwoo.querydsl.repository.TeamStatsRepository;
+import com.minwoo.querydsl.service.TeamAggregateSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamAggregateSnapshot teamAggregateSnapshot;
+    private final TeamStatsRepository teamStatsRepository;
+    private final TeamCache teamCache;
+
+    // team.name별 age 통계(메모리 snapshot 기준, 최대 refresh 주기만큼 지연될 수 있음)
+    @GetMapping("/v1/teams/age-stats")
+    public List<TeamAgeStats> teamAgeStats() {
+        return teamAggregateSnapshot.teamAgeStats();
+    }
+
+    // team_stats pk 조회(group by 없음), member 변경과 같은 transaction에서 갱신
+    // event가 없는 변경(jpql bulk, 직접 실행한 sql)과 통계 도입 전 team은 다음 rebuild까지 틀리거나 없을 수 있음
+    @GetMapping("/v1/teams/{teamId}/stats")
+    public ResponseEntity<TeamStatsDto> teamStats(@PathVariable Long teamId) {
+        return ResponseEntity.of(teamStatsRepository.findById(teamId)
+                                                    .map(stats -> new TeamStatsDto(stats, teamCache.nameOf(teamId))));
+    }
+
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStatsDto> allTeamStats() {
+        return teamStatsRepository.findAll().stream()
+                                  .map(stats -> new TeamStatsDto(stats, teamCache.nameOf(stats.getTeamId())))
+                                  .toList();
+    }
+
+}
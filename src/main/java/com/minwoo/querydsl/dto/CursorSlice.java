@@ -0,0 +1,23 @@
+package com.minwoo.querydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// count 없이 다음 페이지 cursor만 전달(offset paging 대체)
+@Getter
+public class CursorSlice<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor; // 마지막 페이지면 null
+
+    public CursorSlice(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = nextCursor != null;
+        this.nextCursor = nextCursor;
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.minwoo.querydsl.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+// total이 정확한 count가 아닌 추정값일 수 있는 Page(응답에 exact 항목 추가)
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    private final boolean exact;
+
+    public EstimatedPage(List<T> content, Pageable pageable, long total, boolean exact) {
+        super(content, pageable, total);
+        this.exact = exact;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.minwoo.querydsl.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.util.StringUtils.hasText;
+
+// keyset paging용 cursor(마지막 member_id + 정렬 key)
+// client에는 내부 구조를 노출하지 않도록 base64로 encoding하여 전달
+@Getter
+public class MemberCursor {
+
+    private static final String DELIMITER = ":";
+
+    private final Long memberId;
+    private final String sortKey; // 정렬 조건이 없으면 null
+
+    public MemberCursor(Long memberId, String sortKey) {
+        this.memberId = memberId;
+        this.sortKey = sortKey;
+    }
+
+    public String encode() {
+        String raw = sortKey == null ? String.valueOf(memberId) : memberId + DELIMITER + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String cursor) {
+        if(!hasText(cursor)) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] tokens = raw.split(DELIMITER, 2);
+            return new MemberCursor(Long.valueOf(tokens[0]), tokens.length > 1 ? tokens[1] : null);
+        } catch (IllegalArgumentException e) { // NumberFormatException 포함
+            throw new IllegalArgumentException("invalid cursor: " + cursor, e);
+        }
+    }
+
+}
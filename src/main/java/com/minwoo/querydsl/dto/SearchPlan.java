@@ -0,0 +1,28 @@
+package com.minwoo.querydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+// 검색 조건 조합(shape) 하나에서 실행된 sql 하나의 실행 계획
+@Getter
+public class SearchPlan {
+
+    private final String shape; // ex) username+ageGoe, 조건이 없으면 none
+    private final String sql;
+    private final List<Object> parameters;
+    private final List<Map<String, Object>> plan;
+    private final List<String> fullScanTables;
+    private final boolean fullScan;
+
+    public SearchPlan(String shape, String sql, List<Object> parameters, List<Map<String, Object>> plan, List<String> fullScanTables) {
+        this.shape = shape;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.plan = plan;
+        this.fullScanTables = fullScanTables;
+        this.fullScan = !fullScanTables.isEmpty();
+    }
+
+}
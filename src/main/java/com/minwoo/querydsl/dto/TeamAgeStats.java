@@ -0,0 +1,25 @@
+package com.minwoo.querydsl.dto;
+
+import lombok.Data;
+
+// team.name별 member.age 집계(select team.name, count, sum, avg, max, min ... group by team.name 결과 1 row)
+@Data
+public class TeamAgeStats {
+
+    private String teamName;
+    private long count;
+    private long sum;
+    private double avg;
+    private int max;
+    private int min;
+
+    public TeamAgeStats(String teamName, long count, long sum, int max, int min) {
+        this.teamName = teamName;
+        this.count = count;
+        this.sum = sum;
+        this.avg = (double) sum / count;
+        this.max = max;
+        this.min = min;
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.minwoo.querydsl.dto;
+
+import com.minwoo.querydsl.entity.TeamStats;
+import lombok.Data;
+
+@Data
+public class TeamStatsDto {
+
+    private Long teamId;
+    private String teamName;
+    private long memberCount;
+    private long ageSum;
+    private double ageAvg;
+    private Integer minAge;
+    private Integer maxAge;
+
+    public TeamStatsDto(TeamStats stats, String teamName) {
+        this.teamId = stats.getTeamId();
+        this.teamName = teamName;
+        this.memberCount = stats.getMemberCount();
+        this.ageSum = stats.getAgeSum();
+        this.ageAvg = stats.getAgeAvg();
+        this.minAge = stats.getMinAge();
+        this.maxAge = stats.getMaxAge();
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.minwoo.querydsl.entity;
 
+import com.minwoo.querydsl.repository.MemberIndexListener;
 import jakarta.persistence.*;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -7,13 +8,21 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 @Entity
+@EntityListeners(MemberIndexListener.class)
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
+@SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
+@Table(indexes = { // 검색 조건(usernameEq, teamNameEq/teamIdIn, ageBetween) 조합에 맞춘 index
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"), // team + age 범위(team_id로 시작하므로 FK index 겸용)
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age", columnList = "age") // age 조건만 있는 경우
+})
 @ToString(exclude = "team")
 public class Member {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // IDENTITY는 insert 시점에 id를 받아야 해서 jdbc batch insert가 불가 -> sequence(mysql은 table로 대체) + pooled-lo
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
     @Column(name = "member_id")
     private Long id;
 
@@ -1,5 +1,6 @@
 package com.minwoo.querydsl.entity;
 
+import com.minwoo.querydsl.repository.TeamCacheListener;
 import jakarta.persistence.*;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -10,13 +11,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(TeamCacheListener.class)
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
+@SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name")) // teamNameEq(join 후 team.name 조건)
 @ToString(exclude = "members")
 public class Team {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
     @Column(name = "team_id")
     private Long id;
 
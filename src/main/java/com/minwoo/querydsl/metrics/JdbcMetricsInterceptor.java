@@ -0,0 +1,48 @@
+package com.minwoo.querydsl.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// http 요청 1건당 실행된 jdbc statement 수/row 수를 uri별 분포로 기록
+// ex) count query가 추가되면 statements p99가 1 -> 2로 바뀜
+@Component
+@RequiredArgsConstructor
+public class JdbcMetricsInterceptor implements HandlerInterceptor {
+
+    private final JdbcStatementCounter jdbcStatementCounter;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        jdbcStatementCounter.start();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        JdbcStatementCounter.Counts counts = jdbcStatementCounter.finish();
+        if(counts == null) {
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        summary("http.server.requests.jdbc.statements", uri).record(counts.getStatements());
+        summary("http.server.requests.jdbc.rows", uri).record(counts.getRows());
+    }
+
+    private DistributionSummary summary(String name, String uri) {
+        return DistributionSummary.builder(name)
+                                  .tag("uri", uri)
+                                  .publishPercentiles(0.5, 0.95, 0.99)
+                                  .register(meterRegistry);
+    }
+
+}
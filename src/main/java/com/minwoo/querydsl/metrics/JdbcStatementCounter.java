@@ -0,0 +1,76 @@
+package com.minwoo.querydsl.metrics;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// p6spy event hook으로 현재 thread에서 실행된 jdbc statement 수와 읽은 row 수를 집계
+// (JdbcEventListener bean은 p6spy starter가 자동으로 등록)
+@Component
+public class JdbcStatementCounter extends SimpleJdbcEventListener {
+
+    private static final ThreadLocal<Counts> COUNTS = new ThreadLocal<>();
+
+    public void start() {
+        COUNTS.set(new Counts());
+    }
+
+    public Counts finish() {
+        Counts counts = COUNTS.get();
+        COUNTS.remove();
+        return counts;
+    }
+
+    // 요청 대신 다른 thread에서 실행하는 query(병렬 count)도 요청의 집계에 포함 : 요청 thread에서 current()로 받아 실행 thread에서 attach
+    public Counts current() {
+        return COUNTS.get();
+    }
+
+    public void attach(Counts counts) {
+        if(counts != null) {
+            COUNTS.set(counts);
+        }
+    }
+
+    public void detach() {
+        COUNTS.remove();
+    }
+
+    // execute/executeQuery/executeUpdate/executeBatch 모두 호출됨(batch는 1번으로 집계)
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        Counts counts = COUNTS.get();
+        if(counts != null) {
+            counts.statements.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        Counts counts = COUNTS.get();
+        if(counts != null && hasNext) {
+            counts.rows.incrementAndGet();
+        }
+    }
+
+    // 여러 thread에서 증가할 수 있음(attach)
+    public static class Counts {
+
+        private final AtomicLong statements = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+
+        public long getStatements() {
+            return statements.get();
+        }
+
+        public long getRows() {
+            return rows.get();
+        }
+
+    }
+
+}
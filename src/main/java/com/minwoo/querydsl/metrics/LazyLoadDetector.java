@@ -0,0 +1,63 @@
+package com.minwoo.querydsl.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// 지연 로딩(proxy/collection 초기화) 횟수를 요청(start ~ finish) 단위로 집계하여 N+1 의심 구간 감지
+// threshold를 넘으면 log(운영) 또는 예외(test, fail-on-threshold: true)
+@Slf4j
+@Component
+public class LazyLoadDetector implements LoadEventListener, InitializeCollectionEventListener {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Value("${member.lazy-load.threshold:10}")
+    private int threshold;
+
+    @Value("${member.lazy-load.fail-on-threshold:false}")
+    private boolean failOnThreshold;
+
+    public void start() {
+        COUNT.set(new int[1]);
+    }
+
+    public int finish() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+
+    // proxy 초기화(member.getTeam().getName())는 IMMEDIATE_LOAD로 들어옴(em.find는 GET)
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) {
+        if(loadType == LoadEventListener.IMMEDIATE_LOAD) {
+            increase(event.getEntityClassName());
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        increase(event.getCollection().getRole());
+    }
+
+    private void increase(String target) {
+        int[] count = COUNT.get();
+        if(count == null) {
+            return;
+        }
+
+        if(++count[0] == threshold + 1) {
+            String message = "lazy loading exceeded " + threshold + " times in one request (N+1 suspected, last: " + target + ")";
+            if(failOnThreshold) {
+                throw new IllegalStateException(message);
+            }
+            log.warn(message);
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.minwoo.querydsl.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// 요청 단위로 LazyLoadDetector 집계 시작/종료 + uri별 지연 로딩 횟수 기록
+@Component
+@RequiredArgsConstructor
+public class LazyLoadInterceptor implements HandlerInterceptor {
+
+    private final LazyLoadDetector lazyLoadDetector;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        lazyLoadDetector.start();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        int lazyLoads = lazyLoadDetector.finish();
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("http.server.requests.lazy.loads")
+                           .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                           .publishPercentiles(0.5, 0.99)
+                           .register(meterRegistry)
+                           .record(lazyLoads);
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.minwoo.querydsl.metrics;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// start ~ finish 사이 현재 thread에서 실행된 sql과 parameter 값을 수집(EXPLAIN 진단용)
+// p6spy의 getSqlWithValues()는 use_sql_comments 주석 안의 ?1 까지 치환해서 값이 밀리므로 parameter는 따로 보관
+@Component
+public class SqlCapture extends SimpleJdbcEventListener {
+
+    private static final ThreadLocal<Capture> CAPTURE = new ThreadLocal<>();
+
+    public record Statement(String sql, List<Object> parameters) {
+    }
+
+    public void start() {
+        CAPTURE.set(new Capture());
+    }
+
+    public List<Statement> finish() {
+        Capture capture = CAPTURE.get();
+        CAPTURE.remove();
+        return capture != null ? capture.statements : List.of();
+    }
+
+    @Override
+    public void onAfterPreparedStatementSet(PreparedStatementInformation statementInformation, int parameterIndex, Object value, SQLException e) {
+        Capture capture = CAPTURE.get();
+        if(capture != null) {
+            capture.parameters.computeIfAbsent(statementInformation, key -> new TreeMap<>()).put(parameterIndex, value);
+        }
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        Capture capture = CAPTURE.get();
+        if(capture != null) {
+            Map<Integer, Object> parameters = capture.parameters.remove(statementInformation);
+            capture.statements.add(new Statement(statementInformation.getSql(),
+                    parameters != null ? new ArrayList<>(parameters.values()) : List.of()));
+        }
+    }
+
+    private static class Capture {
+        private final List<Statement> statements = new ArrayList<>();
+        private final Map<StatementInformation, Map<Integer, Object>> parameters = new IdentityHashMap<>();
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.minwoo.querydsl.repository;
+
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DataSourceDecorator;
+import com.minwoo.querydsl.config.ReplicaProperties;
+import com.minwoo.querydsl.config.ReplicaRoutingDataSource;
+import com.minwoo.querydsl.metrics.JdbcStatementCounter;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// count query를 전용 thread + 전용 connection pool(member.count.pool-size)에서 실행
+// 요청 thread는 이미 기본 pool의 connection을 잡고 있으므로(OSIV, @Transactional) count가 같은 pool을 쓰면
+// 동시 요청이 pool 크기에 닿았을 때 서로의 connection을 기다리며 멈춤 -> pool을 분리하고,
+// 전용 thread가 모두 사용 중이면 기다리지 않고 요청 thread에서 순서대로 count(fallback)
+// 기본 datasource와 같게 구성 : replica 설정 시 primary/replica마다 전용 pool을 두고 요청 thread의 readOnly 여부로 routing,
+// 같은 decorator(p6spy)로 감싸 요청별 statement 집계(JdbcStatementCounter)에 포함
+@Component
+@RequiredArgsConstructor
+public class CountQueryExecutor {
+
+    private final EntityManagerFactory emf;
+    private final DataSourceProperties dataSourceProperties;
+    private final DataSource dataSource;
+    private final ObjectProvider<ReplicaProperties> replicaProperties; // replica 설정 시에만 등록(DataSourceConfig)
+    private final ObjectProvider<DataSourceDecorator> dataSourceDecorators;
+    private final JdbcStatementCounter jdbcStatementCounter;
+
+    @Value("${member.count.pool-size:4}")
+    private int poolSize;
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private DataSource countDataSource;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() throws SQLException {
+        HikariDataSource primary = pool("count", dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build());
+        DataSource target = primary;
+
+        ReplicaProperties replicas = replicaProperties.getIfAvailable();
+        if(replicas != null && !replicas.getReplicas().isEmpty()) {
+            List<DataSource> replicaPools = new ArrayList<>();
+            for (ReplicaProperties.Replica replica : replicas.getReplicas()) {
+                HikariDataSource replicaDataSource = new HikariDataSource();
+                replicaDataSource.setJdbcUrl(replica.getUrl());
+                replicaDataSource.setUsername(replica.getUsername());
+                replicaDataSource.setPassword(replica.getPassword());
+                replicaDataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+                replicaPools.add(pool("count-replica-" + replicaPools.size(), replicaDataSource));
+            }
+
+            // 지연 확인은 기본 routing datasource의 결과를 사용(contents와 같은 replica 목록 기준)
+            ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, replicaPools, null, replicas.getMaxLag());
+            routingDataSource.shareAvailability(dataSource.unwrap(ReplicaRoutingDataSource.class));
+            routingDataSource.afterPropertiesSet(); // bean이 아니므로 직접 초기화
+            target = routingDataSource;
+        }
+
+        for (DataSourceDecorator decorator : dataSourceDecorators.orderedStream().toList()) {
+            target = decorator.decorate("countDataSource", target);
+        }
+        countDataSource = target;
+
+        // 대기 queue 없음 : thread가 모두 사용 중이면 RejectedExecutionException -> fallback
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), new CustomizableThreadFactory("count-"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private HikariDataSource pool(String name, HikariDataSource pool) {
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(poolSize); // thread 수와 같아 connection을 기다리지 않음
+        pool.setMinimumIdle(0);
+        pool.setReadOnly(true);
+        pool.setConnectionTimeout(1000);
+        pools.add(pool);
+        return pool;
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+        pools.forEach(HikariDataSource::close);
+    }
+
+    // fallback : 전용 thread/connection을 쓸 수 없을 때 호출한 thread(자신의 transaction)에서 실행할 count
+    public CountTask submit(Function<JPAQueryFactory, Long> countQuery, Supplier<Long> fallback) {
+        CountTask task = new CountTask(fallback);
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        JdbcStatementCounter.Counts counts = jdbcStatementCounter.current();
+        try {
+            task.future = executor.submit(() -> count(task, countQuery, readOnly, counts));
+        } catch (RejectedExecutionException e) {
+            // future가 없으면 get()에서 fallback 실행
+        }
+        return task;
+    }
+
+    // 요청의 transaction과 무관한 session(commit된 data 기준), connection은 session 종료 후 pool로 반환
+    // 요청 thread의 readOnly 여부(replica routing)와 statement 집계를 이 thread에서 이어 받음
+    private Long count(CountTask task, Function<JPAQueryFactory, Long> countQuery, boolean readOnly, JdbcStatementCounter.Counts counts) throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        jdbcStatementCounter.attach(counts);
+        try (Connection connection = countDataSource.getConnection();
+             Session session = emf.unwrap(SessionFactory.class).withOptions().connection(connection).openSession()) {
+            if(!task.started(session)) {
+                return null; // 시작 전에 취소됨
+            }
+
+            try {
+                return countQuery.apply(new JPAQueryFactory(session));
+            } finally {
+                task.finished();
+            }
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            jdbcStatementCounter.detach();
+        }
+    }
+
+    public static class CountTask {
+
+        private final Supplier<Long> fallback;
+        private volatile Future<Long> future;
+
+        // 실행 중인 session, cancel과 시작/종료가 엇갈리지 않도록 this로 동기화
+        private Session session;
+        private boolean cancelled;
+
+        private CountTask(Supplier<Long> fallback) {
+            this.fallback = fallback;
+        }
+
+        public long get() {
+            if(future == null) {
+                return fallback.get();
+            }
+
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("count query interrupted", e);
+            } catch (ExecutionException e) {
+                if(e.getCause() instanceof SQLTransientConnectionException) {
+                    return fallback.get(); // 전용 pool에서 connection을 받지 못함
+                }
+                if(e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        // count가 필요 없어진 경우 : 시작 전이면 실행하지 않고, 실행 중이면 statement 취소(Statement.cancel)
+        // session은 열렸지만 statement가 아직 만들어지기 전이면 취소되지 않고 끝까지 실행될 수 있음(전용 pool 안에서만 차지)
+        public void cancel() {
+            if(future == null || future.isDone()) {
+                return;
+            }
+
+            synchronized (this) {
+                cancelled = true;
+                if(session != null) {
+                    try {
+                        session.cancelQuery();
+                    } catch (HibernateException e) {
+                        // 이미 종료된 경우
+                    }
+                }
+            }
+            future.cancel(false); // jdbc 실행은 interrupt로 멈추지 않으므로 cancelQuery로만 취소
+        }
+
+        private synchronized boolean started(Session session) {
+            if(cancelled) {
+                return false;
+            }
+            this.session = session;
+            return true;
+        }
+
+        private synchronized void finished() {
+            session = null;
+        }
+
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.minwoo.querydsl.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// client가 보낸 검색 조건(cursor, 정렬, batch 조건 수 등)이 잘못된 경우 -> 400
+// repository에서 던지면 InvalidDataAccessApiUsageException으로 감싸지지만 ResponseStatusExceptionResolver가 cause까지 확인함
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSearchConditionException extends IllegalArgumentException {
+
+    public InvalidSearchConditionException(String message) {
+        super(message);
+    }
+
+    public InvalidSearchConditionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,307 @@
+package com.minwoo.querydsl.repository;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Visitor;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+// Projections.bean/fields/constructor와 사용법은 같지만 row마다 reflection(Method.invoke, Field.set)을 하지 않음
+// dto class별로 생성자/setter를 LambdaMetafactory(Supplier, BiConsumer), field는 MethodHandle로 한 번만 만들어 cache
+// ex) select(LambdaProjections.bean(MemberDto.class, member.username, member.age))
+public final class LambdaProjections {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final Map<Class<?>, Supplier<?>> INSTANTIATORS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Map<String, BiConsumer<Object, Object>>> SETTERS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Map<String, BiConsumer<Object, Object>>> FIELD_SETTERS = new ConcurrentHashMap<>();
+    private static final Map<List<Class<?>>, SpreadConstructor> CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    private LambdaProjections() {
+    }
+
+    // setter 주입(Projections.bean), property 이름은 path 이름 또는 as("alias")
+    public static <T> FactoryExpression<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        return new PropertyProjection<>(type, exprs, setters(type));
+    }
+
+    // field 직접 주입(Projections.fields, private field도 가능)
+    public static <T> FactoryExpression<T> fields(Class<? extends T> type, Expression<?>... exprs) {
+        return new PropertyProjection<>(type, exprs, fieldSetters(type));
+    }
+
+    // 생성자 호출(Projections.constructor), 인자 type으로 생성자를 찾음
+    // Projections.constructor와 같이 primitive parameter에 null이 오면 기본값(0, false)으로 호출
+    public static <T> FactoryExpression<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+        List<Class<?>> key = new ArrayList<>();
+        key.add(type);
+        for (Expression<?> expr : exprs) {
+            key.add(expr.getType());
+        }
+
+        SpreadConstructor constructor = CONSTRUCTORS.computeIfAbsent(List.copyOf(key), k -> spreadConstructor(type, k.subList(1, k.size())));
+        return new ConstructorProjection<>(type, List.of(exprs), constructor);
+    }
+
+    private static class PropertyProjection<T> extends FactoryExpressionBase<T> {
+
+        private final List<Expression<?>> args;
+        private final Supplier<?> instantiator;
+        private final List<BiConsumer<Object, Object>> setters;
+
+        PropertyProjection(Class<? extends T> type, Expression<?>[] exprs, Map<String, BiConsumer<Object, Object>> properties) {
+            super(type);
+            this.instantiator = INSTANTIATORS.computeIfAbsent(type, LambdaProjections::instantiator);
+            this.args = new ArrayList<>(exprs.length);
+            this.setters = new ArrayList<>(exprs.length);
+
+            for (int i = 0; i < exprs.length; i++) {
+                String property = propertyName(exprs[i]);
+                BiConsumer<Object, Object> setter = properties.get(property);
+                if(setter == null) {
+                    throw new IllegalArgumentException(type.getName() + " has no property " + property);
+                }
+                args.add(projected(exprs[i]));
+                setters.add(setter);
+            }
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return Collections.unmodifiableList(args);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T newInstance(Object... values) {
+            Object bean = instantiator.get();
+            for (int i = 0; i < values.length; i++) {
+                if(values[i] != null) { // QBean과 같이 null은 주입하지 않음(primitive 기본값 유지)
+                    setters.get(i).accept(bean, values[i]);
+                }
+            }
+            return (T) bean;
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+
+    }
+
+    private static class ConstructorProjection<T> extends FactoryExpressionBase<T> {
+
+        private final List<Expression<?>> args;
+        private final SpreadConstructor constructor;
+
+        ConstructorProjection(Class<? extends T> type, List<Expression<?>> args, SpreadConstructor constructor) {
+            super(type);
+            this.args = args;
+            this.constructor = constructor;
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return args;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T newInstance(Object... values) {
+            try {
+                return (T) (Object) constructor.handle().invokeExact(constructor.withDefaults(values));
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ExpressionException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+
+    }
+
+    private static String propertyName(Expression<?> expr) {
+        if(expr instanceof Path<?> path) {
+            return path.getMetadata().getName();
+        }
+
+        if(expr instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS && operation.getArg(1) instanceof Path<?> alias) {
+            return alias.getMetadata().getName();
+        }
+
+        throw new IllegalArgumentException("Unsupported expression " + expr);
+    }
+
+    // QBean과 같이 dto/subquery에 붙은 alias는 벗겨서 select
+    private static Expression<?> projected(Expression<?> expr) {
+        if(expr instanceof Operation<?> operation && operation.getArg(0) instanceof FactoryExpression<?>) {
+            return operation.getArg(0);
+        }
+        return expr;
+    }
+
+    private static Supplier<?> instantiator(Class<?> type) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, LOOKUP);
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    constructor,
+                    MethodType.methodType(type));
+            return (Supplier<?>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(type.getName() + " needs a no-args constructor", e);
+        }
+    }
+
+    private static Map<String, BiConsumer<Object, Object>> setters(Class<?> type) {
+        return SETTERS.computeIfAbsent(type, t -> {
+            Map<String, BiConsumer<Object, Object>> setters = new ConcurrentHashMap<>();
+            for (Method method : t.getMethods()) {
+                String name = method.getName();
+                if(name.length() > 3 && name.startsWith("set") && method.getParameterCount() == 1 && !Modifier.isStatic(method.getModifiers())) {
+                    String property = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+                    setters.put(property, setterLambda(t, method));
+                }
+            }
+            return setters;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setterLambda(Class<?> type, Method method) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, LOOKUP);
+            MethodHandle setter = lookup.unreflect(method);
+            Class<?> valueType = MethodType.methodType(method.getParameterTypes()[0]).wrap().returnType();
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    setter,
+                    MethodType.methodType(void.class, type, valueType)); // int 등 primitive는 wrapper로 받아 unboxing
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("cannot create setter " + method, e);
+        }
+    }
+
+    private static Map<String, BiConsumer<Object, Object>> fieldSetters(Class<?> type) {
+        return FIELD_SETTERS.computeIfAbsent(type, t -> {
+            Map<String, BiConsumer<Object, Object>> setters = new ConcurrentHashMap<>();
+            for (Class<?> c = t; c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if(!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+                        setters.putIfAbsent(field.getName(), fieldSetter(c, field));
+                    }
+                }
+            }
+            return setters;
+        });
+    }
+
+    // field는 LambdaMetafactory 대상이 아니므로 (Object, Object)void로 맞춘 MethodHandle 사용
+    private static BiConsumer<Object, Object> fieldSetter(Class<?> owner, Field field) {
+        try {
+            MethodHandle setter = MethodHandles.privateLookupIn(owner, LOOKUP)
+                                               .unreflectSetter(field)
+                                               .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (bean, value) -> {
+                try {
+                    setter.invokeExact(bean, value);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new ExpressionException(e.getMessage(), e);
+                }
+            };
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("cannot create field setter " + field, e);
+        }
+    }
+
+    // handle : (Object[])Object 형태로 맞춰서 인자 수와 관계없이 invokeExact로 호출
+    // defaults : primitive parameter 위치의 기본값(그 외는 null)
+    private record SpreadConstructor(MethodHandle handle, Object[] defaults) {
+
+        Object[] withDefaults(Object[] values) {
+            Object[] args = values;
+            for (int i = 0; i < defaults.length; i++) {
+                if(defaults[i] != null && args[i] == null) {
+                    if(args == values) {
+                        args = values.clone();
+                    }
+                    args[i] = defaults[i];
+                }
+            }
+            return args;
+        }
+
+    }
+
+    private static SpreadConstructor spreadConstructor(Class<?> type, List<Class<?>> argTypes) {
+        Constructor<?> constructor = Arrays.stream(type.getDeclaredConstructors())
+                                           .filter(c -> matches(c.getParameterTypes(), argTypes))
+                                           .findFirst()
+                                           .orElseThrow(() -> new IllegalArgumentException("No constructor found for " + type.getName() + " with parameters " + argTypes));
+        try {
+            MethodHandle handle = MethodHandles.privateLookupIn(type, LOOKUP).unreflectConstructor(constructor);
+
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            Object[] defaults = new Object[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if(parameterTypes[i].isPrimitive()) {
+                    defaults[i] = Array.get(Array.newInstance(parameterTypes[i], 1), 0);
+                }
+            }
+
+            return new SpreadConstructor(handle.asType(MethodType.genericMethodType(argTypes.size()))
+                                               .asSpreader(Object[].class, argTypes.size()), defaults);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("cannot access constructor " + constructor, e);
+        }
+    }
+
+    private static boolean matches(Class<?>[] parameterTypes, List<Class<?>> argTypes) {
+        if(parameterTypes.length != argTypes.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> parameterType = MethodType.methodType(parameterTypes[i]).wrap().returnType();
+            if(!parameterType.isAssignableFrom(argTypes.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -1,9 +1,12 @@
 package com.minwoo.querydsl.repository;
 
+import com.minwoo.querydsl.dto.CursorSlice;
+import com.minwoo.querydsl.dto.EstimatedPage;
 import com.minwoo.querydsl.dto.MemberSearchCondition;
 import com.minwoo.querydsl.dto.MemberTeamDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -11,8 +14,29 @@ public interface MemberCustomRepository {
 
     List<MemberTeamDto> search(MemberSearchCondition condition);
 
+    // 조건 목록을 query 1번으로 조회하여 조건 순서대로 결과 반환
+    List<List<MemberTeamDto>> searchBatch(List<MemberSearchCondition> conditions);
+
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
 
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
 
+    // MemberIndex를 사용 중이어도 db로 조회(SearchPlanService : 실제 실행되는 sql의 실행 계획 확인용)
+    Page<MemberTeamDto> searchPageComplexFromDb(MemberSearchCondition condition, Pageable pageable);
+
+    Page<MemberTeamDto> searchPageParallel(MemberSearchCondition condition, Pageable pageable);
+
+    // contents와 total을 count(*) over()로 한 번에 조회, 조건에 해당하는 row 전체를 읽어야 total이 나오므로
+    // 조건이 넓으면 searchPageSimple/Complex보다 훨씬 느림(PagingBenchmark, 1M rows : 약 1.5 ops/s vs 143 ops/s)
+    // -> 해당 row가 적은 선택적인 조건(username, 작은 team)에서만 사용
+    Page<MemberTeamDto> searchPageWindow(MemberSearchCondition condition, Pageable pageable);
+
+    // exact=false면 count query 대신 통계로 추정한 total(추정값이 작으면 count query 실행)
+    EstimatedPage<MemberTeamDto> searchPageEstimated(MemberSearchCondition condition, Pageable pageable, boolean exact);
+
+    // 다음 페이지 존재 여부만 필요한 경우(무한 scroll), count query 없음
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+
+    CursorSlice<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, Pageable pageable);
+
 }
@@ -0,0 +1,388 @@
+package com.minwoo.querydsl.repository;
+
+import com.minwoo.querydsl.dto.MemberSearchCondition;
+import com.minwoo.querydsl.dto.MemberTeamDto;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.minwoo.querydsl.entity.QMember.member;
+import static org.springframework.util.StringUtils.hasText;
+
+// member 검색을 db 없이 메모리에서 처리하는 index(member.index.enabled=true 일 때 startup에 load)
+// member마다 slot(순번)을 주고 column별 primitive 배열에 보관, 조건별 slot bitmap을 교집합(and)하여 검색
+// - username : username -> bitmap (hash map)
+// - team     : team id -> bitmap (teamName 조건은 TeamCache로 team id를 구함)
+// - age      : 정렬된 age 배열 + age별 bitmap, 범위 조건은 이진 탐색 후 해당 구간 bitmap을 합집합(or)
+// 변경은 MemberIndexListener가 commit 후 반영(querydsl bulk update/delete, 다른 서버의 변경은 감지하지 못하므로 load로 재구성)
+// - BulkOperationService는 끝난 뒤 load, 그 외는 member.index.reload-millis 주기로 다시 load
+// 결과 순서는 slot 순서(load 시 member_id 순, 이후 추가된 member는 뒤에)
+@Component
+@RequiredArgsConstructor
+public class MemberIndex {
+
+    private static final int LOAD_BATCH = 10_000;
+    private static final long NO_TEAM = Long.MIN_VALUE;
+
+    private final JPAQueryFactory queryFactory;
+    private final TeamCache teamCache;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Store store; // null이면 사용하지 않음(db로 조회)
+    private List<Runnable> pendingChanges; // load 도중 들어온 변경(load 후 다시 적용)
+
+    @Value("${member.index.enabled:false}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if(enabled) {
+            load();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${member.index.reload-millis:600000}", initialDelayString = "${member.index.reload-millis:600000}")
+    public void scheduledReload() {
+        if(isReady()) { // clear 되었거나 사용하지 않으면 load하지 않음
+            load();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return store != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 전체 member를 member_id 순으로 keyset 조회하여 새로 구성(entity가 아닌 column만 조회)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Store loaded;
+        try {
+            loaded = read();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null; // 기존 store 유지
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            store = loaded;
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Store read() {
+        Store loaded = new Store();
+        Long lastId = null;
+        while (true) {
+            List<Tuple> rows = queryFactory
+                    .select(member.id, member.username, member.age, member.team.id)
+                    .from(member)
+                    .where(lastId == null ? null : member.id.gt(lastId))
+                    .orderBy(member.id.asc())
+                    .limit(LOAD_BATCH)
+                    .fetch();
+
+            for (Tuple row : rows) {
+                loaded.put(row.get(member.id), row.get(member.username), row.get(member.age), row.get(member.team.id));
+            }
+
+            if(rows.size() < LOAD_BATCH) {
+                return loaded;
+            }
+            lastId = rows.get(rows.size() - 1).get(member.id);
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            store = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 추가/변경 모두(같은 member_id면 같은 slot 유지)
+    public void put(Long memberId, String username, int age, Long teamId) {
+        apply(() -> store.put(memberId, username, age, teamId));
+    }
+
+    public void remove(Long memberId) {
+        apply(() -> store.remove(memberId));
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if(pendingChanges != null) {
+                pendingChanges.add(change);
+            } else if(store != null) {
+                change.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // TeamCache는 load 시 db를 조회할 수 있으므로 team id/name은 read lock 밖에서 구함(lock 동안 변경 반영이 막히지 않도록)
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        List<Long> teamIds = teamIdsOf(condition);
+        List<MemberTeamDto> results;
+
+        lock.readLock().lock();
+        try {
+            BitSet matched = matches(condition, teamIds);
+            results = new ArrayList<>(matched.cardinality());
+            for (int slot = matched.nextSetBit(0); slot >= 0; slot = matched.nextSetBit(slot + 1)) {
+                results.add(toDto(slot));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return withTeamNames(results);
+    }
+
+    // total은 bitmap의 cardinality(count query 불필요)
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        List<Long> teamIds = teamIdsOf(condition);
+        List<MemberTeamDto> contents = new ArrayList<>(pageable.getPageSize());
+        long total;
+
+        lock.readLock().lock();
+        try {
+            BitSet matched = matches(condition, teamIds);
+
+            long skip = pageable.getOffset();
+            int slot = matched.nextSetBit(0);
+            while (slot >= 0 && skip-- > 0) {
+                slot = matched.nextSetBit(slot + 1);
+            }
+            while (slot >= 0 && contents.size() < pageable.getPageSize()) {
+                contents.add(toDto(slot));
+                slot = matched.nextSetBit(slot + 1);
+            }
+            total = matched.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return new PageImpl<>(withTeamNames(contents), pageable, total);
+    }
+
+    // teamName 조건이 없으면 null
+    private List<Long> teamIdsOf(MemberSearchCondition condition) {
+        return hasText(condition.getTeamName()) ? teamCache.idsOf(condition.getTeamName()) : null;
+    }
+
+    private List<MemberTeamDto> withTeamNames(List<MemberTeamDto> results) {
+        for (MemberTeamDto result : results) {
+            result.setTeamName(teamCache.nameOf(result.getTeamId()));
+        }
+        return results;
+    }
+
+    // MemberRepositoryImpl의 usernameEq, teamNameEq, ageBetween과 같은 조건
+    private BitSet matches(MemberSearchCondition condition, List<Long> teamIds) {
+        BitSet result = (BitSet) store.live.clone();
+
+        if(hasText(condition.getUsername())) {
+            result.and(store.byUsername.getOrDefault(condition.getUsername(), new BitSet()));
+        }
+
+        if(teamIds != null) {
+            BitSet teams = new BitSet();
+            for (Long teamId : teamIds) {
+                BitSet team = store.byTeam.get(teamId);
+                if(team != null) {
+                    teams.or(team);
+                }
+            }
+            result.and(teams);
+        }
+
+        if(condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+            int from = condition.getAgeGoe() != null ? condition.getAgeGoe() : Integer.MIN_VALUE;
+            int to = condition.getAgeLoe() != null ? condition.getAgeLoe() : Integer.MAX_VALUE;
+            result.and(store.ageRange(from, to));
+        }
+
+        return result;
+    }
+
+    // teamName은 lock 밖에서 withTeamNames로 채움
+    private MemberTeamDto toDto(int slot) {
+        long teamId = store.teamIds[slot];
+        Long team = teamId == NO_TEAM ? null : teamId;
+        return new MemberTeamDto(store.ids[slot], store.usernames[slot], store.ages[slot], team, null);
+    }
+
+    // lock 안에서만 접근
+    private static class Store {
+
+        private long[] ids = new long[1024];
+        private String[] usernames = new String[1024];
+        private int[] ages = new int[1024];
+        private long[] teamIds = new long[1024];
+        private int size;
+
+        private final Map<Long, Integer> slots = new HashMap<>();
+        private final BitSet live = new BitSet();
+        private final Map<String, BitSet> byUsername = new HashMap<>();
+        private final Map<Long, BitSet> byTeam = new HashMap<>();
+
+        // ageKeys[i]인 member의 slot bitmap이 byAge[i](ageKeys는 오름차순, 새 age가 들어올 때만 배열 재생성)
+        private int[] ageKeys = new int[0];
+        private BitSet[] byAge = new BitSet[0];
+
+        void put(Long memberId, String username, int age, Long teamId) {
+            Integer existing = slots.get(memberId);
+            int slot;
+            if(existing != null) {
+                slot = existing;
+                unindex(slot);
+            } else {
+                slot = size++;
+                grow();
+                slots.put(memberId, slot);
+            }
+
+            ids[slot] = memberId;
+            usernames[slot] = username;
+            ages[slot] = age;
+            teamIds[slot] = teamId == null ? NO_TEAM : teamId;
+
+            live.set(slot);
+            if(username != null) {
+                byUsername.computeIfAbsent(username, key -> new BitSet()).set(slot);
+            }
+            if(teamId != null) {
+                byTeam.computeIfAbsent(teamId, key -> new BitSet()).set(slot);
+            }
+            ageBitmap(age).set(slot);
+        }
+
+        // slot은 재사용하지 않음(다음 load 때 정리)
+        void remove(Long memberId) {
+            Integer slot = slots.remove(memberId);
+            if(slot != null) {
+                unindex(slot);
+                live.clear(slot);
+                usernames[slot] = null;
+            }
+        }
+
+        BitSet ageRange(int from, int to) {
+            BitSet range = new BitSet();
+            for (int i = lowerBound(from); i < ageKeys.length && ageKeys[i] <= to; i++) {
+                range.or(byAge[i]);
+            }
+            return range;
+        }
+
+        private void unindex(int slot) {
+            clearBit(byUsername, usernames[slot], slot);
+            clearBit(byTeam, teamIds[slot], slot);
+            int ageIndex = Arrays.binarySearch(ageKeys, ages[slot]);
+            if(ageIndex >= 0) {
+                byAge[ageIndex].clear(slot);
+            }
+        }
+
+        private static <K> void clearBit(Map<K, BitSet> bitmaps, K key, int slot) {
+            BitSet bitmap = key == null ? null : bitmaps.get(key);
+            if(bitmap != null) {
+                bitmap.clear(slot);
+                if(bitmap.isEmpty()) {
+                    bitmaps.remove(key);
+                }
+            }
+        }
+
+        private BitSet ageBitmap(int age) {
+            int index = Arrays.binarySearch(ageKeys, age);
+            if(index >= 0) {
+                return byAge[index];
+            }
+
+            int insertAt = -index - 1;
+            int[] keys = new int[ageKeys.length + 1];
+            BitSet[] bitmaps = new BitSet[byAge.length + 1];
+            System.arraycopy(ageKeys, 0, keys, 0, insertAt);
+            System.arraycopy(byAge, 0, bitmaps, 0, insertAt);
+            System.arraycopy(ageKeys, insertAt, keys, insertAt + 1, ageKeys.length - insertAt);
+            System.arraycopy(byAge, insertAt, bitmaps, insertAt + 1, byAge.length - insertAt);
+            keys[insertAt] = age;
+            bitmaps[insertAt] = new BitSet();
+
+            ageKeys = keys;
+            byAge = bitmaps;
+            return bitmaps[insertAt];
+        }
+
+        // from 이상인 첫 index
+        private int lowerBound(int from) {
+            int low = 0;
+            int high = ageKeys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if(ageKeys[mid] < from) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void grow() {
+            if(size <= ids.length) {
+                return;
+            }
+
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            usernames = Arrays.copyOf(usernames, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            teamIds = Arrays.copyOf(teamIds, capacity);
+        }
+
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.minwoo.querydsl.repository;
+
+import com.minwoo.querydsl.entity.Member;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// member 변경을 MemberIndex에 반영(rollback된 변경이 보이지 않도록 commit 후)
+// 값은 event 시점에 복사(commit 후에는 entity가 다시 바뀌었거나 detach 되었을 수 있음)
+@RequiredArgsConstructor
+public class MemberIndexListener {
+
+    private final ObjectProvider<MemberIndex> memberIndexProvider;
+
+    @PostPersist
+    @PostUpdate
+    public void put(Member member) {
+        Long memberId = member.getId();
+        String username = member.getUsername();
+        int age = member.getAge();
+        Long teamId = member.getTeam() == null ? null : member.getTeam().getId(); // proxy라도 id는 초기화 없이 조회
+
+        afterCommit(() -> memberIndexProvider.getObject().put(memberId, username, age, teamId));
+    }
+
+    @PostRemove
+    public void remove(Member member) {
+        Long memberId = member.getId();
+        afterCommit(() -> memberIndexProvider.getObject().remove(memberId));
+    }
+
+    private static void afterCommit(Runnable change) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+}
@@ -5,26 +5,38 @@ import com.minwoo.querydsl.dto.MemberTeamDto;
 import com.minwoo.querydsl.dto.QMemberTeamDto;
 import com.minwoo.querydsl.entity.Member;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.minwoo.querydsl.entity.QMember.member;
 import static com.minwoo.querydsl.entity.QTeam.team;
 import static org.springframework.util.StringUtils.hasText;
 
+@Timed(value = "member.repository", histogram = true, percentiles = {0.5, 0.95, 0.99})
 @Repository
 @RequiredArgsConstructor
 public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final TeamCache teamCache;
 
     public void save(Member member) {
         em.persist(member);
@@ -59,6 +71,43 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    // member.team(LAZY)을 사용하는 경우 member 수만큼 team 조회 query가 추가로 나감(N+1)
+    // -> fetch join / entity graph로 한번에 조회
+    public List<Member> findAll_fetchJoin() {
+        return queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .fetch();
+    }
+
+    public List<Member> findByUsername_fetchJoin(String username) {
+        return queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(member.username.eq(username))
+                .fetch();
+    }
+
+    public List<Member> findAll_entityGraph() {
+        return em.createQuery("select m from Member m", Member.class)
+                 .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, teamGraph())
+                 .getResultList();
+    }
+
+    public List<Member> findByUsername_entityGraph(String username) {
+        return em.createQuery("select m from Member m where m.username = :username", Member.class)
+                 .setParameter("username", username)
+                 .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, teamGraph())
+                 .getResultList();
+    }
+
+    private EntityGraph<Member> teamGraph() {
+        EntityGraph<Member> graph = em.createEntityGraph(Member.class);
+        graph.addAttributeNodes("team");
+        return graph;
+    }
+
+    @Transactional(readOnly = true) // replica 설정 시 replica에서 조회
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
 
         // 조건이 전부 null이면 all select로 쿼리가 나가므로 limit나 paging으로 제한 권장
@@ -69,7 +118,7 @@ public class MemberJpaRepository {
         }
 
         if(hasText(condition.getTeamName())) {
-            builder.and(team.name.eq(condition.getTeamName()));
+            builder.and(member.team.id.in(teamCache.idsOf(condition.getTeamName())));
         }
 
         if(condition.getAgeGoe() != null) {
@@ -80,15 +129,41 @@ public class MemberJpaRepository {
             builder.and(member.age.loe(condition.getAgeLoe()));
         }
 
-        return queryFactory
-                .select(new QMemberTeamDto(member.id.as("memberId"), member.username, member.age, team.id.as("teamId"), team.name.as("teamName")))
-                .from(member)
-                .leftJoin(member.team, team)
+        return toMemberTeamDtos(selectMemberTeam()
                 .where(builder)
-                .fetch();
+                .fetch());
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchWhere(MemberSearchCondition condition) {
+        return toMemberTeamDtos(selectMemberTeam()
+                .where( // 조건들을 조합/재사용이 가능함
+                        usernameEq(condition.getUsername()),
+                        teamIdIn(condition.getTeamName()),
+                        ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
+                        //ageLoe(condition.getAgeLoe()),
+                        //ageGoe(condition.getAgeGoe())
+                )
+                .fetch());
+    }
+
+    // fetch()와 같은 조건이지만 결과를 list로 모으지 않고 row 단위로 읽음(호출하는 쪽에서 close 필수)
+    // mysql은 fetchSize가 Integer.MIN_VALUE일 때 result set을 한번에 받지 않고 streaming
+    public Stream<MemberTeamDto> streamWhere(MemberSearchCondition condition, int fetchSize) {
+        Map<Long, String> teamNames = teamCache.namesById(); // streaming 중에는 cache load(다른 query)를 할 수 없으므로 먼저
+        return selectMemberTeam()
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamIdIn(condition.getTeamName()),
+                        ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
+                )
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .stream()
+                .map(row -> toMemberTeamDto(row, teamNames.get(row.get(member.team.id))));
+    }
+
+    // member_id 범위의 member + team을 id 순으로 streaming(export partition 단위), dto projection이라 영속성 context에 쌓이지 않음
+    public Stream<MemberTeamDto> streamRange(long fromId, long toId, int fetchSize) {
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -98,22 +173,40 @@ public class MemberJpaRepository {
                         team.name.as("teamName")))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where( // 조건들을 조합/재사용이 가능함
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
-                        //ageLoe(condition.getAgeLoe()),
-                        //ageGoe(condition.getAgeGoe())
-                )
-                .fetch();
+                .where(member.id.between(fromId, toId))
+                .orderBy(member.id.asc())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .stream();
+    }
+
+    // team은 join하지 않고 member.team_id만 조회, team name은 TeamCache에서(MemberRepositoryImpl과 같음)
+    private JPAQuery<Tuple> selectMemberTeam() {
+        return queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member);
+    }
+
+    private List<MemberTeamDto> toMemberTeamDtos(List<Tuple> rows) {
+        return rows.stream()
+                   .map(this::toMemberTeamDto)
+                   .collect(Collectors.toList());
+    }
+
+    private MemberTeamDto toMemberTeamDto(Tuple row) {
+        return toMemberTeamDto(row, teamCache.nameOf(row.get(member.team.id)));
+    }
+
+    private MemberTeamDto toMemberTeamDto(Tuple row, String teamName) {
+        return new MemberTeamDto(row.get(member.id), row.get(member.username), row.get(member.age), row.get(member.team.id), teamName);
     }
 
     private BooleanExpression usernameEq(String username) {
         return hasText(username) ? member.username.eq(username) : null;
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+    // 같은 이름의 team이 여러 개일 수 있으므로 in, 없는 team이면 빈 in(결과 없음)
+    private BooleanExpression teamIdIn(String teamName) {
+        return hasText(teamName) ? member.team.id.in(teamCache.idsOf(teamName)) : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
@@ -130,7 +223,7 @@ public class MemberJpaRepository {
             return Expressions.TRUE;
         }
 
-        return ageGoe(ageLoe).and(ageLoe(ageGoe));
+        return Expressions.allOf(ageGoe(ageGoe), ageLoe(ageLoe)); // 한쪽만 있는 경우도 처리
     }
 
 }
\ No newline at end of file
@@ -64,7 +64,7 @@ public class MemberQueryRepository {
             return Expressions.TRUE;
         }
 
-        return ageGoe(ageLoe).and(ageLoe(ageGoe));
+        return Expressions.allOf(ageGoe(ageGoe), ageLoe(ageLoe)); // 한쪽만 있는 경우도 처리
     }
 
 }
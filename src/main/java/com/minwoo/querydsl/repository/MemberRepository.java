@@ -1,7 +1,9 @@
 package com.minwoo.querydsl.repository;
 
 import com.minwoo.querydsl.entity.Member;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 
 import java.util.List;
@@ -10,4 +12,12 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberCus
 
     List<Member> findByUsername(String username);
 
+    // team까지 한번에 조회(fetch join)
+    @EntityGraph(attributePaths = "team")
+    List<Member> findWithTeamByUsername(String username);
+
+    @EntityGraph(attributePaths = "team")
+    @Query("select m from Member m")
+    List<Member> findAllWithTeam();
+
 }
@@ -1,27 +1,45 @@
 package com.minwoo.querydsl.repository;
 
+import com.minwoo.querydsl.dto.CursorSlice;
+import com.minwoo.querydsl.dto.EstimatedPage;
+import com.minwoo.querydsl.dto.MemberCursor;
 import com.minwoo.querydsl.dto.MemberSearchCondition;
 import com.minwoo.querydsl.dto.MemberTeamDto;
-import com.minwoo.querydsl.dto.QMemberTeamDto;
-import com.minwoo.querydsl.entity.Member;
+import com.minwoo.querydsl.repository.CountQueryExecutor.CountTask;
+import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.CaseBuilder;
 import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
 
 import static com.minwoo.querydsl.entity.QMember.member;
-import static com.minwoo.querydsl.entity.QTeam.team;
 import static org.springframework.util.StringUtils.hasText;
 
+@Timed(value = "member.repository", histogram = true, percentiles = {0.5, 0.95, 0.99}) // method별 latency
+@Transactional(readOnly = true) // 검색은 모두 조회 전용(replica 설정 시 replica에서 조회)
 @RequiredArgsConstructor
 @Repository
 public class MemberRepositoryImpl implements MemberCustomRepository{
@@ -41,43 +59,103 @@ public class MemberRepositoryImpl implements MemberCustomRepository{
     */
 
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueryCache memberSearchQueryCache;
+    private final TeamCache teamCache;
+    private final CountQueryExecutor countQueryExecutor;
+    private final MemberIndex memberIndex;
+    private final MemberStatistics memberStatistics;
+
+    @Value("${member.statistics.exact-count-threshold:1000}")
+    private long exactCountThreshold;
+
+    // 페이징 전 전체 row 수(window function, hibernate 6부터 hql에서 사용 가능)
+    private static final NumberExpression<Long> TOTAL_COUNT = Expressions.numberTemplate(Long.class, "count(*) over()");
+
+    // batch 검색의 조건별 일치 여부 column 값(parameter가 아닌 literal로 출력)
+    private static final NumberExpression<Integer> MATCHED = Expressions.numberTemplate(Integer.class, "1");
+    private static final NumberExpression<Integer> NOT_MATCHED = Expressions.numberTemplate(Integer.class, "0");
+    private static final int MAX_BATCH_CONDITIONS = 50; // 조건마다 or 조건 + case column이 늘어나므로 한 요청의 조건 수 제한
+    private static final int BATCH_MATCH_OFFSET = 4; // member.id, username, age, team.id 다음부터 조건별 column
 
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")))
+        if(memberIndex.isReady()) {
+            return memberIndex.search(condition); // member.index.enabled=true면 db 조회 없이 메모리 index로 처리
+        }
+
+        // 조건 조합(shape)별로 미리 만들어둔 jpql에 parameter만 binding
+        return memberSearchQueryCache.search(condition);
+    }
+
+    @Override
+    public List<List<MemberTeamDto>> searchBatch(List<MemberSearchCondition> conditions) {
+        if(conditions.isEmpty()) {
+            return List.of();
+        }
+        if(conditions.size() > MAX_BATCH_CONDITIONS) {
+            throw new InvalidSearchConditionException("too many conditions: " + conditions.size() + " (max " + MAX_BATCH_CONDITIONS + ")");
+        }
+
+        // 조건들을 or로 묶어 한 번에 조회하고, 조건마다 case when column(1/0)을 두어 어느 조건에 해당하는지 구분
+        // (한 member가 여러 조건에 해당할 수 있어 discriminator 1개가 아닌 조건별 column 사용)
+        BooleanBuilder anyCondition = new BooleanBuilder();
+        List<NumberExpression<Integer>> matches = new ArrayList<>();
+        List<Expression<?>> select = new ArrayList<>(List.of(member.id, member.username, member.age, member.team.id));
+
+        for (MemberSearchCondition condition : conditions) {
+            BooleanBuilder predicate = conditionPredicate(condition);
+            anyCondition.or(predicate);
+
+            NumberExpression<Integer> matched = new CaseBuilder().when(predicate).then(MATCHED).otherwise(NOT_MATCHED);
+            matches.add(matched);
+            select.add(matched);
+        }
+
+        List<Tuple> rows = queryFactory
+                .select(select.toArray(new Expression<?>[0]))
                 .from(member)
-                .leftJoin(member.team, team)
-                .where( // 조건들을 조합/재사용이 가능함
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
-                        //ageLoe(condition.getAgeLoe()),
-                        //ageGoe(condition.getAgeGoe())
-                )
+                .where(anyCondition)
+                .orderBy(member.id.asc())
                 .fetch();
+
+        List<List<MemberTeamDto>> results = new ArrayList<>(conditions.size());
+        for (int i = 0; i < conditions.size(); i++) {
+            results.add(new ArrayList<>());
+        }
+
+        for (Tuple row : rows) {
+            MemberTeamDto dto = toMemberTeamDto(row);
+            for (int i = 0; i < matches.size(); i++) {
+                if(row.get(i + BATCH_MATCH_OFFSET, Integer.class) == 1) {
+                    results.get(i).add(dto);
+                }
+            }
+        }
+
+        return results;
+    }
+
+    // search와 같은 조건(조건이 하나도 없으면 전체)
+    private BooleanBuilder conditionPredicate(MemberSearchCondition condition) {
+        BooleanBuilder builder = new BooleanBuilder()
+                .and(usernameEq(condition.getUsername()))
+                .and(teamIdIn(condition.getTeamName()))
+                .and(ageGoe(condition.getAgeGoe()))
+                .and(ageLoe(condition.getAgeLoe()));
+
+        return builder.hasValue() ? builder : builder.and(member.id.isNotNull());
     }
 
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        if(memberIndex.isReady()) {
+            return memberIndex.searchPage(condition, pageable);
+        }
 
-        QueryResults<MemberTeamDto> results = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")))
-                .from(member)
-                .leftJoin(member.team, team)
+        QueryResults<Tuple> results = selectMemberTeam()
                 .where( // 조건들을 조합/재사용이 가능함
                         usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamIdIn(condition.getTeamName()),
                         ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
                         //ageLoe(condition.getAgeLoe()),
                         //ageGoe(condition.getAgeGoe())
@@ -86,7 +164,7 @@ public class MemberRepositoryImpl implements MemberCustomRepository{
                 .limit(pageable.getPageSize())
                 .fetchResults();
 
-        List<MemberTeamDto> contents = results.getResults();
+        List<MemberTeamDto> contents = toMemberTeamDtos(results.getResults());
         long total = results.getTotal();
 
         return new PageImpl<>(contents, pageable, total);
@@ -94,52 +172,288 @@ public class MemberRepositoryImpl implements MemberCustomRepository{
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        if(memberIndex.isReady()) {
+            return memberIndex.searchPage(condition, pageable);
+        }
+        return searchPageComplexFromDb(condition, pageable);
+    }
 
-        List<MemberTeamDto> contents = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")))
-                .from(member)
-                .leftJoin(member.team, team)
+    @Override
+    public Page<MemberTeamDto> searchPageComplexFromDb(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> contents = toMemberTeamDtos(selectMemberTeam()
                 .where( // 조건들을 조합/재사용이 가능함
                         usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamIdIn(condition.getTeamName()),
                         ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
                         //ageLoe(condition.getAgeLoe()),
                         //ageGoe(condition.getAgeGoe())
                 )
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
-                .fetch();
+                .fetch());
 
         // join 같은 쿼리가 필요없는 경우는 간단한 쿼리로 변경(최적화)
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
+        JPAQuery<Long> countQuery = countQuery(condition);
+
+        // count(total)가 필요하지 않은 경우
+        // 1. 첫페이지인데 contents보다 size가 더 클 경우 -> 가져온 contents 수가 count가 됨
+        // 2. 마지막 페이지일 경우 -> offset + 가져온 contents 수가 count가 됨
+        return PageableExecutionUtils.getPage(contents, pageable, countQuery::fetchOne);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageParallel(MemberSearchCondition condition, Pageable pageable) {
+        if(memberIndex.isReady()) {
+            return memberIndex.searchPage(condition, pageable);
+        }
+
+        // count를 먼저 전용 thread/connection에서 시작하고 contents 조회와 동시에 실행(전용 thread가 없으면 contents 후 순서대로)
+        CountTask countTask = countQueryExecutor.submit(factory -> countQuery(factory, condition).fetchOne(), () -> searchCount(condition));
+
+        try {
+            List<MemberTeamDto> contents = toMemberTeamDtos(selectMemberTeam()
+                    .where(
+                            usernameEq(condition.getUsername()),
+                            teamIdIn(condition.getTeamName()),
+                            ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
+                    )
+                    .offset(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .fetch());
+
+            // count가 필요 없는 경우(첫/마지막 페이지가 size보다 짧음)에는 countTask::get이 호출되지 않음
+            return PageableExecutionUtils.getPage(contents, pageable, countTask::get);
+        } finally {
+            countTask.cancel(); // 이미 끝났으면 무시, 아직 실행 중이면 취소
+        }
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageWindow(MemberSearchCondition condition, Pageable pageable) {
+        if(memberIndex.isReady()) {
+            return memberIndex.searchPage(condition, pageable);
+        }
+
+        // contents와 total을 한 번의 query로 조회(count query 생략)
+        // window 함수는 offset/limit 전에 조건에 해당하는 row 전체를 만들어야 하므로 limit이 있어도 전체를 읽음(MemberCustomRepository 참고)
+        List<Tuple> rows = queryFactory
+                .select(member.id, member.username, member.age, member.team.id, TOTAL_COUNT)
                 .from(member)
-                .leftJoin(member.team, team)
-                .where( // 조건들을 조합/재사용이 가능함
+                .where(
                         usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamIdIn(condition.getTeamName()),
+                        ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
+                )
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        if(rows.isEmpty()) {
+            // 마지막 페이지를 넘어선 경우 row가 없어 total을 알 수 없으므로 이 때만 count query 실행
+            long total = pageable.getOffset() == 0 ? 0 : searchCount(condition);
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+
+        List<MemberTeamDto> contents = toMemberTeamDtos(rows);
+
+        return new PageImpl<>(contents, pageable, rows.get(0).get(TOTAL_COUNT));
+    }
+
+    @Override
+    public EstimatedPage<MemberTeamDto> searchPageEstimated(MemberSearchCondition condition, Pageable pageable, boolean exact) {
+        if(memberIndex.isReady()) {
+            Page<MemberTeamDto> page = memberIndex.searchPage(condition, pageable); // index의 total은 항상 정확
+            return new EstimatedPage<>(page.getContent(), pageable, page.getTotalElements(), true);
+        }
+
+        List<MemberTeamDto> contents = toMemberTeamDtos(selectMemberTeam()
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamIdIn(condition.getTeamName()),
+                        ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
+                )
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch());
+
+        // 페이지가 size보다 짧으면 contents 수로 정확한 total을 알 수 있음(PageableExecutionUtils와 같은 조건)
+        if(contents.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !contents.isEmpty())) {
+            return new EstimatedPage<>(contents, pageable, pageable.getOffset() + contents.size(), true);
+        }
+
+        if(!exact) {
+            OptionalLong estimate = memberStatistics.estimate(condition); // 통계 계산 전이면 empty -> 정확한 count
+            if(estimate.isPresent() && estimate.getAsLong() > exactCountThreshold) {
+                // 추정값이 현재 페이지보다 작게 나오더라도 페이지가 꽉 찼으면 다음 페이지가 있을 수 있음
+                long total = Math.max(estimate.getAsLong(), pageable.getOffset() + contents.size() + 1);
+                return new EstimatedPage<>(contents, pageable, total, false);
+            }
+        }
+
+        return new EstimatedPage<>(contents, pageable, searchCount(condition), true);
+    }
+
+    // team은 join하지 않고 member.team_id만 조회, team name은 TeamCache에서 채움
+    private JPAQuery<Tuple> selectMemberTeam() {
+        return queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member);
+    }
+
+    private List<MemberTeamDto> toMemberTeamDtos(List<Tuple> rows) {
+        return rows.stream()
+                   .map(this::toMemberTeamDto)
+                   .collect(Collectors.toList());
+    }
+
+    private MemberTeamDto toMemberTeamDto(Tuple row) {
+        Long teamId = row.get(member.team.id);
+        return new MemberTeamDto(row.get(member.id), row.get(member.username), row.get(member.age), teamId, teamCache.nameOf(teamId));
+    }
+
+    private long searchCount(MemberSearchCondition condition) {
+        return countQuery(condition).fetchOne();
+    }
+
+    // 조건에 따라 count query를 구성(contents query와 같은 조건 method를 사용하여 결과 불일치 방지)
+    // team은 member 기준 N:1이라 join 여부가 count에 영향이 없고,
+    // teamName 조건은 TeamCache로 team id를 구해 member.team_id(FK)로 비교하므로 join 없이 member만 count
+    private JPAQuery<Long> countQuery(MemberSearchCondition condition) {
+        return countQuery(queryFactory, condition);
+    }
+
+    // searchPageParallel은 전용 connection의 session으로 만든 queryFactory로 실행
+    private JPAQuery<Long> countQuery(JPAQueryFactory queryFactory, MemberSearchCondition condition) {
+        return queryFactory
+                .select(member.id.count())
+                .from(member)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamIdIn(condition.getTeamName()),
                         ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
-                        //ageLoe(condition.getAgeLoe()),
-                        //ageGoe(condition.getAgeGoe())
                 );
+    }
 
-        // count(total)가 필요하지 않은 경우
-        // 1. 첫페이지인데 contents보다 size가 더 클 경우 -> 가져온 contents 수가 count가 됨
-        // 2. 마지막 페이지일 경우 -> offset + 가져온 contents 수가 count가 됨
-        return PageableExecutionUtils.getPage(contents, pageable, countQuery::fetchCount);
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        if(memberIndex.isReady()) {
+            Page<MemberTeamDto> page = memberIndex.searchPage(condition, pageable);
+            return new SliceImpl<>(page.getContent(), pageable, page.hasNext());
+        }
+
+        int size = pageable.getPageSize();
+
+        List<MemberTeamDto> contents = toMemberTeamDtos(selectMemberTeam()
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamIdIn(condition.getTeamName()),
+                        ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
+                )
+                .offset(pageable.getOffset())
+                .limit(size + 1) // 1건 더 조회되면 다음 페이지가 있음
+                .fetch());
+
+        boolean hasNext = contents.size() > size;
+        return new SliceImpl<>(hasNext ? contents.subList(0, size) : contents, pageable, hasNext);
+    }
+
+    @Override
+    public CursorSlice<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, Pageable pageable) {
+
+        // offset 대신 마지막 row의 key 이후부터 조회(seek) -> 페이지가 깊어져도 앞 row를 버리는 비용이 없음
+        Sort.Order order = cursorOrder(pageable.getSort());
+        int size = pageable.getPageSize();
+
+        List<MemberTeamDto> contents = toMemberTeamDtos(selectMemberTeam()
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamIdIn(condition.getTeamName()),
+                        ageBetween(condition.getAgeLoe(), condition.getAgeGoe()),
+                        cursorAfter(order, decodeCursor(cursor))
+                )
+                .orderBy(cursorOrderSpecifiers(order))
+                .limit(size + 1) // 1건 더 조회하여 다음 페이지 존재 여부 판단(count query 불필요)
+                .fetch());
+
+        if(contents.size() <= size) {
+            return new CursorSlice<>(contents, size, null);
+        }
+
+        contents = contents.subList(0, size);
+        MemberTeamDto last = contents.get(size - 1);
+        String sortKey = order == null ? null : String.valueOf(last.getAge());
+
+        return new CursorSlice<>(contents, size, new MemberCursor(last.getMemberId(), sortKey).encode());
+    }
+
+    // keyset 정렬은 (정렬 key, member_id)가 unique해야 하므로 not null 컬럼인 age만 허용
+    private Sort.Order cursorOrder(Sort sort) {
+        if(sort.isUnsorted()) {
+            return null;
+        }
+
+        Sort.Order order = sort.iterator().next();
+        if(!"age".equals(order.getProperty())) {
+            throw new InvalidSearchConditionException("unsupported cursor sort: " + order.getProperty());
+        }
+
+        return order;
+    }
+
+    private OrderSpecifier<?>[] cursorOrderSpecifiers(Sort.Order order) {
+        if(order == null) {
+            return new OrderSpecifier<?>[]{member.id.asc()};
+        }
+
+        return order.isAscending()
+                ? new OrderSpecifier<?>[]{member.age.asc(), member.id.asc()}
+                : new OrderSpecifier<?>[]{member.age.desc(), member.id.desc()};
+    }
+
+    // cursor는 client가 그대로 돌려주는 값이므로 변조/손상된 값은 400
+    private MemberCursor decodeCursor(String cursor) {
+        try {
+            return MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSearchConditionException(e.getMessage(), e);
+        }
+    }
+
+    private BooleanExpression cursorAfter(Sort.Order order, MemberCursor cursor) {
+        if(cursor == null) {
+            return null;
+        }
+
+        Long lastId = cursor.getMemberId();
+        if(order == null) {
+            return member.id.gt(lastId);
+        }
+
+        if(cursor.getSortKey() == null) {
+            throw new InvalidSearchConditionException("cursor does not match sort: " + order.getProperty());
+        }
+
+        int lastAge;
+        try {
+            lastAge = Integer.parseInt(cursor.getSortKey());
+        } catch (NumberFormatException e) {
+            throw new InvalidSearchConditionException("invalid cursor sort key: " + cursor.getSortKey(), e);
+        }
+
+        // (age, id) > (lastAge, lastId) : row value 비교를 jpql에서 쓸 수 없어 풀어서 작성
+        return order.isAscending()
+                ? member.age.gt(lastAge).or(member.age.eq(lastAge).and(member.id.gt(lastId)))
+                : member.age.lt(lastAge).or(member.age.eq(lastAge).and(member.id.lt(lastId)));
     }
 
     private BooleanExpression usernameEq(String username) {
         return hasText(username) ? member.username.eq(username) : null;
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+    // team name 조건을 team join 없이 member.team_id(FK)로(없는 team이면 1 = 2)
+    // contents와 count가 같은 TeamCache 값으로 조회하므로 cache가 늦게 반영되더라도 둘의 결과가 어긋나지 않음
+    private BooleanExpression teamIdIn(String teamName) {
+        return hasText(teamName) ? member.team.id.in(teamCache.idsOf(teamName)) : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
@@ -156,7 +470,7 @@ public class MemberRepositoryImpl implements MemberCustomRepository{
             return Expressions.TRUE;
         }
 
-        return ageGoe(ageLoe).and(ageLoe(ageGoe));
+        return Expressions.allOf(ageGoe(ageGoe), ageLoe(ageLoe)); // 한쪽만 있는 경우도 처리
     }
 
 }
\ No newline at end of file
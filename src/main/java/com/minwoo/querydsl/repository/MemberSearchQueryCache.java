@@ -0,0 +1,166 @@
+package com.minwoo.querydsl.repository;
+
+import com.minwoo.querydsl.dto.MemberSearchCondition;
+import com.minwoo.querydsl.dto.MemberTeamDto;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static com.minwoo.querydsl.entity.QMember.member;
+import static org.springframework.util.StringUtils.hasText;
+
+// MemberSearchCondition은 값이 있는 field 조합(shape)이 2^4 = 16가지뿐이므로
+// shape별로 jpql을 한번만 만들어 두고 요청마다 parameter만 binding(query 객체 생성/serialize 생략)
+// team은 TeamCache로 name -> id 변환 후 member.team_id로만 조회(join 없음), teamName도 cache에서 채움
+@Component
+@RequiredArgsConstructor
+public class MemberSearchQueryCache {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+
+    private static final Param<String> USERNAME_PARAM = new Param<>(String.class, "username");
+    @SuppressWarnings("rawtypes")
+    private static final Param<Collection> TEAM_IDS_PARAM = new Param<>(Collection.class, "teamIds");
+    private static final Param<Integer> AGE_GOE_PARAM = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE_PARAM = new Param<>(Integer.class, "ageLoe");
+
+    private final EntityManager em;
+    private final TeamCache teamCache;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Integer, CompiledSearch> compiledSearches = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    // /actuator/metrics/member.search.query.cache?tag=result:hit
+    @PostConstruct
+    void registerMetrics() {
+        FunctionCounter.builder("member.search.query.cache", hitCount, LongAdder::sum)
+                       .tag("result", "hit")
+                       .register(meterRegistry);
+        FunctionCounter.builder("member.search.query.cache", missCount, LongAdder::sum)
+                       .tag("result", "miss")
+                       .register(meterRegistry);
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        List<Long> teamIds = hasText(condition.getTeamName()) ? teamCache.idsOf(condition.getTeamName()) : List.of();
+        if(hasText(condition.getTeamName()) && teamIds.isEmpty()) {
+            return List.of(); // 없는 team
+        }
+
+        CompiledSearch compiled = compiled(shapeOf(condition));
+
+        Query query = em.createQuery(compiled.jpql());
+        JPAUtil.setConstants(query, compiled.constants(), params(condition, teamIds));
+
+        List<?> rows = query.getResultList();
+        return rows.stream()
+                   .map(row -> toMemberTeamDto((Object[]) row))
+                   .collect(Collectors.toList());
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    // 이미 만들어진 jpql을 버림(다음 조회부터 shape별로 다시 생성)
+    void clear() {
+        compiledSearches.clear();
+    }
+
+    private CompiledSearch compiled(int shape) {
+        CompiledSearch compiled = compiledSearches.get(shape);
+        if(compiled != null) {
+            hitCount.increment();
+            return compiled;
+        }
+
+        missCount.increment();
+        return compiledSearches.computeIfAbsent(shape, this::compile);
+    }
+
+    private CompiledSearch compile(int shape) {
+        JPAQuery<?> query = new JPAQuery<>(em)
+                .select(member.id, member.username, member.age, member.team.id) // team.id는 FK라 join 불필요
+                .from(member)
+                .where(
+                        has(shape, USERNAME) ? member.username.eq(USERNAME_PARAM) : null,
+                        has(shape, TEAM_NAME) ? ExpressionUtils.predicate(Ops.IN, member.team.id, TEAM_IDS_PARAM) : null,
+                        has(shape, AGE_GOE) ? member.age.goe(AGE_GOE_PARAM) : null,
+                        has(shape, AGE_LOE) ? member.age.loe(AGE_LOE_PARAM) : null
+                );
+
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(query.getMetadata(), false, null);
+
+        return new CompiledSearch(serializer.toString(), List.copyOf(serializer.getConstants()));
+    }
+
+    private static int shapeOf(MemberSearchCondition condition) {
+        int shape = 0;
+        if(hasText(condition.getUsername())) {
+            shape |= USERNAME;
+        }
+        if(hasText(condition.getTeamName())) {
+            shape |= TEAM_NAME;
+        }
+        if(condition.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if(condition.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        return shape;
+    }
+
+    private static boolean has(int shape, int field) {
+        return (shape & field) != 0;
+    }
+
+    // shape에 없는 param은 jpql에 포함되지 않으므로 null이어도 binding되지 않음
+    private static Map<ParamExpression<?>, Object> params(MemberSearchCondition condition, List<Long> teamIds) {
+        Map<ParamExpression<?>, Object> params = new HashMap<>();
+        params.put(USERNAME_PARAM, condition.getUsername());
+        params.put(TEAM_IDS_PARAM, teamIds);
+        params.put(AGE_GOE_PARAM, condition.getAgeGoe());
+        params.put(AGE_LOE_PARAM, condition.getAgeLoe());
+        return params;
+    }
+
+    private MemberTeamDto toMemberTeamDto(Object[] row) {
+        Long teamId = (Long) row[3];
+        return new MemberTeamDto((Long) row[0], (String) row[1], (Integer) row[2], teamId, teamCache.nameOf(teamId));
+    }
+
+    private record CompiledSearch(String jpql, List<Object> constants) {
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.minwoo.querydsl.repository;
+
+import com.minwoo.querydsl.dto.MemberSearchCondition;
+import com.minwoo.querydsl.entity.TeamStats;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.minwoo.querydsl.entity.QMember.member;
+import static org.springframework.util.StringUtils.hasText;
+
+// 검색 결과 건수 추정용 통계(count query 대신 사용)
+// - 전체 row 수, age histogram, username distinct 수 : 주기적으로 다시 계산(member.statistics.refresh-millis)
+// - team별 row 수 : team_stats(pk 조회, member 변경 시 바로 반영)
+// 조건끼리는 서로 독립이라고 가정하고 선택도(selectivity)를 곱함 -> 상관관계가 큰 조건 조합은 오차가 커짐
+// 통계 계산(전체 aggregate 3번)은 요청 thread에서 하지 않음 : startup 후 background에서 계산하고, 그 전에는 추정값 없음(정확한 count)
+@Component
+@RequiredArgsConstructor
+public class MemberStatistics {
+
+    private final JPAQueryFactory queryFactory;
+    private final TeamStatsRepository teamStatsRepository;
+    private final TeamCache teamCache;
+    private final AsyncTaskExecutor taskExecutor;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        taskExecutor.execute(this::scheduledRefresh);
+    }
+
+    // 이미 다른 thread가 계산 중이면 건너뜀(곧 새 snapshot이 생김)
+    @Scheduled(fixedDelayString = "${member.statistics.refresh-millis:300000}", initialDelayString = "${member.statistics.refresh-millis:300000}")
+    public void scheduledRefresh() {
+        if(refreshLock.tryLock()) {
+            try {
+                load();
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+    }
+
+    // 계산 중인 thread가 있으면 끝나길 기다렸다가 다시 계산(호출 시점 이후의 data 반영)
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            load();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void load() {
+        long total = queryFactory.select(member.count()).from(member).fetchOne();
+        long distinctUsernames = queryFactory.select(member.username.countDistinct()).from(member).fetchOne();
+
+        List<Tuple> histogram = queryFactory
+                .select(member.age, member.count())
+                .from(member)
+                .groupBy(member.age)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        int[] ages = new int[histogram.size()];
+        long[] cumulative = new long[histogram.size()]; // ages[0] ~ ages[i] 까지의 row 수
+        long sum = 0;
+        for (int i = 0; i < histogram.size(); i++) {
+            ages[i] = histogram.get(i).get(member.age);
+            sum += histogram.get(i).get(member.count());
+            cumulative[i] = sum;
+        }
+
+        snapshot = new Snapshot(total, distinctUsernames, ages, cumulative);
+    }
+
+    // 아직 통계가 없으면(startup 직후 계산 중) empty
+    public OptionalLong estimate(MemberSearchCondition condition) {
+        Snapshot current = snapshot;
+        if(current == null) {
+            return OptionalLong.empty();
+        }
+
+        if(current.total() == 0) {
+            return OptionalLong.of(0);
+        }
+
+        double rows = current.total();
+        if(hasText(condition.getUsername())) {
+            rows /= Math.max(current.distinctUsernames(), 1);
+        }
+        if(hasText(condition.getTeamName())) {
+            long teamRows = teamStatsRepository.findAllById(teamCache.idsOf(condition.getTeamName()))
+                                               .stream()
+                                               .mapToLong(TeamStats::getMemberCount)
+                                               .sum();
+            rows *= (double) teamRows / current.total();
+        }
+        if(condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+            rows *= (double) current.ageRows(condition.getAgeGoe(), condition.getAgeLoe()) / current.total();
+        }
+
+        return OptionalLong.of((long) Math.ceil(rows));
+    }
+
+    private record Snapshot(long total, long distinctUsernames, int[] ages, long[] cumulative) {
+
+        // goe <= age <= loe 인 row 수(null이면 제한 없음)
+        long ageRows(Integer goe, Integer loe) {
+            int from = goe == null ? 0 : lowerBound(goe);
+            int to = loe == null ? ages.length : lowerBound(loe + 1);
+            if(from >= to) {
+                return 0;
+            }
+            return cumulative[to - 1] - (from == 0 ? 0 : cumulative[from - 1]);
+        }
+
+        // value 이상인 첫 index
+        private int lowerBound(int value) {
+            int low = 0;
+            int high = ages.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if(ages[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+    }
+
+}
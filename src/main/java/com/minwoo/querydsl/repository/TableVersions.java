@@ -0,0 +1,133 @@
+package com.minwoo.querydsl.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// table별 변경 version(단조 증가), 조회 결과 ETag 생성에 사용
+// hibernate가 실행하는 모든 insert/update/delete sql을 보고 증가하므로 entity 변경과 querydsl bulk execute() 모두 포함
+// (JdbcTemplate 등 hibernate를 거치지 않는 변경, 다른 서버의 변경은 감지하지 못함)
+// version은 instance 메모리에만 있으므로 여러 instance로 운영하면 instance마다 따로 증가
+// -> 다른 instance에서 변경된 data는 이 instance의 ETag에 반영되지 않음(sticky session 또는 redis 등 공유 저장소의 version 필요)
+// replica가 있으면 commit 후 replica가 따라올 때까지(max-lag + lag-check-interval) 이전 data가 새 version으로 응답될 수 있으므로 그 뒤에 한번 더 증가
+@Component
+@RequiredArgsConstructor
+public class TableVersions implements StatementInspector {
+
+    private static final Pattern WRITE = Pattern.compile("^(?:insert\\s+into|update|delete\\s+(?:\\w+\\s+)?from)\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    private final TaskScheduler taskScheduler;
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    @Value("${member.datasource.replicas[0].url:}")
+    private String replicaUrl;
+
+    @Value("${member.datasource.max-lag:5s}")
+    private Duration maxLag;
+
+    @Value("${member.datasource.lag-check-interval:5000}")
+    private long lagCheckInterval;
+
+    public long get(String table) {
+        AtomicLong version = versions.get(table);
+        return version == null ? 0 : version.get();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String table = writtenTable(sql);
+        if(table != null) {
+            bump(table);
+        }
+        return sql;
+    }
+
+    private void bump(String table) {
+        versions.computeIfAbsent(table, key -> new AtomicLong()).incrementAndGet();
+
+        // commit 전에 변경 전 data로 응답한 요청이 새 version을 받았을 수 있으므로 transaction 종료 후 한번 더
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingBump().tables.add(table);
+        }
+    }
+
+    // transaction당 하나만 등록(REQUIRES_NEW로 중단된 바깥 transaction의 synchronization은 목록에 없음)
+    private PendingBump pendingBump() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if(synchronization instanceof PendingBump pending && pending.owner() == this) {
+                return pending;
+            }
+        }
+
+        PendingBump pending = new PendingBump();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private class PendingBump implements TransactionSynchronization {
+
+        private final Set<String> tables = new HashSet<>();
+
+        private TableVersions owner() {
+            return TableVersions.this;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            tables.forEach(table -> versions.get(table).incrementAndGet());
+
+            // 지연이 max-lag 이하인 replica만 사용하고 지연은 lag-check-interval마다 확인하므로 그 시간이 지나면 replica에도 반영됨
+            if(!replicaUrl.isEmpty()) {
+                taskScheduler.schedule(() -> tables.forEach(table -> versions.get(table).incrementAndGet()),
+                        Instant.now().plus(maxLag).plusMillis(lagCheckInterval));
+            }
+        }
+
+    }
+
+    // select는 첫 글자만 보고 바로 제외, use_sql_comments의 /* */ 주석은 건너뜀
+    private static String writtenTable(String sql) {
+        int start = 0;
+        while (true) {
+            while (start < sql.length() && Character.isWhitespace(sql.charAt(start))) {
+                start++;
+            }
+            if(!sql.startsWith("/*", start)) {
+                break;
+            }
+            int end = sql.indexOf("*/", start);
+            if(end < 0) {
+                return null;
+            }
+            start = end + 2;
+        }
+
+        if(start >= sql.length()) {
+            return null;
+        }
+
+        char first = Character.toLowerCase(sql.charAt(start));
+        if(first != 'i' && first != 'u' && first != 'd') {
+            return null;
+        }
+
+        Matcher matcher = WRITE.matcher(sql).region(start, sql.length());
+        return matcher.lookingAt() ? matcher.group(1).toLowerCase() : null;
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.minwoo.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.minwoo.querydsl.entity.QTeam.team;
+
+// team은 row 수가 적고 거의 변경되지 않으므로 name <-> id를 메모리에 보관
+// -> member 검색 시 team join 없이 member.team_id(FK)로만 조회 가능
+// team 변경 시 TeamCacheListener가 invalidate(다른 서버의 변경이나 team bulk update는 감지하지 못함)
+@Component
+@RequiredArgsConstructor
+public class TeamCache {
+
+    private final JPAQueryFactory queryFactory;
+
+    private final AtomicLong version = new AtomicLong();
+
+    // 동시에 여러 thread가 다시 load하지 않도록 한 thread만(나머지는 기다렸다가 새 snapshot 사용)
+    // synchronized는 jdbc 조회 동안 virtual thread의 carrier를 점유(pinning)하므로 lock 사용
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        loadLock.lock();
+        try {
+            doLoad();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void doLoad() {
+        // load 도중 invalidate 되면 version이 달라져 다음 조회 때 다시 load
+        long loadVersion = version.get();
+        Map<String, List<Long>> idsByName = new HashMap<>();
+        Map<Long, String> namesById = new HashMap<>();
+
+        for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch()) {
+            Long teamId = row.get(team.id);
+            String name = row.get(team.name);
+            namesById.put(teamId, name);
+            if(name != null) {
+                idsByName.computeIfAbsent(name, key -> new ArrayList<>()).add(teamId);
+            }
+        }
+
+        snapshot = new Snapshot(loadVersion, idsByName, namesById);
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    // team name은 unique가 아니므로 id 목록(없는 team이면 empty)
+    public List<Long> idsOf(String teamName) {
+        return current().idsByName().getOrDefault(teamName, List.of());
+    }
+
+    public String nameOf(Long teamId) {
+        if(teamId == null) {
+            return null;
+        }
+
+        Snapshot current = current();
+        if(!current.namesById().containsKey(teamId)) {
+            current = reload(current); // 아직 반영되지 않은 team이면 한번 더 load
+        }
+
+        return current.namesById().get(teamId);
+    }
+
+    // streaming 조회 도중에는 같은 connection으로 load query를 실행할 수 없으므로(mysql streaming result set) 조회 전에 받아 두는 용도
+    // 받은 뒤에 생긴 team은 없으므로 name이 null일 수 있음
+    public Map<Long, String> namesById() {
+        return current().namesById();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if(current.version() == version.get()) {
+            return current;
+        }
+
+        loadLock.lock();
+        try {
+            if(snapshot.version() != version.get()) { // lock을 기다리는 동안 다른 thread가 load 했으면 생략
+                doLoad();
+            }
+            return snapshot;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // seen 이후 다른 thread가 이미 다시 load 했으면 그 결과를 사용
+    private Snapshot reload(Snapshot seen) {
+        loadLock.lock();
+        try {
+            if(snapshot == seen) {
+                doLoad();
+            }
+            return snapshot;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private record Snapshot(long version, Map<String, List<Long>> idsByName, Map<Long, String> namesById) {
+        static final Snapshot EMPTY = new Snapshot(-1, Map.of(), Map.of());
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.minwoo.querydsl.repository;
+
+import com.minwoo.querydsl.entity.Team;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// entity listener도 spring bean container(SpringBeanContainer)를 통해 생성되므로 주입 가능
+// 단, EntityManagerFactory 생성 중에 만들어지므로 TeamCache(-> JPAQueryFactory -> EntityManager)는 지연 조회
+@RequiredArgsConstructor
+public class TeamCacheListener {
+
+    private final ObjectProvider<TeamCache> teamCacheProvider;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Team team) {
+        TeamCache teamCache = teamCacheProvider.getObject();
+        teamCache.invalidate();
+
+        // commit 전에 다른 thread가 load 했을 수 있으므로 transaction 종료(commit/rollback) 후 한번 더
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    teamCache.invalidate();
+                }
+            });
+        }
+    }
+
+}
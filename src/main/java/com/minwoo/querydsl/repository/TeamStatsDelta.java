@@ -0,0 +1,65 @@
+package com.minwoo.querydsl.repository;
+
+import org.hibernate.SharedSessionContract;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// team별 member 수/age 합 변화량을 모아 team_stats에 한 번에 반영
+// min/max는 증감으로 유지할 수 없으므로(최소값 member가 빠지는 경우) 변경된 team만 (team_id, age) index로 다시 계산
+public class TeamStatsDelta {
+
+    // 문장 하나로 upsert : update 후 0건이면 insert하는 방식은 같은 새 team을 동시에 변경하면 둘 다 insert하여 duplicate key
+    // pk 한 row에 변화량만 더함(member 조회 없음), row가 없으면 변화량으로 생성(새 team은 변화량이 곧 전체)
+    // 통계 도입 전 data의 team은 TeamStatsService.rebuild가 만듦
+    // 변화량은 values() 대신 parameter를 다시 사용(values()는 mysql 8.0.20부터 deprecated)
+    private static final String UPSERT = "insert into team_stats (team_id, member_count, age_sum, min_age, max_age) " +
+            "values (:teamId, :count, :ageSum, null, null) " +
+            "on duplicate key update member_count = member_count + :count, age_sum = age_sum + :ageSum";
+    // (team_id, age) index에서 team 구간의 처음/마지막 값만 읽음
+    private static final String MIN_MAX = "update team_stats " +
+            "set min_age = (select min(age) from member where team_id = :teamId), max_age = (select max(age) from member where team_id = :teamId) " +
+            "where team_id = :teamId";
+    private static final String REMOVE = "delete from team_stats where team_id = :teamId";
+
+    private final Map<Long, long[]> changes = new HashMap<>(); // team id -> {count, ageSum}
+    private final Set<Long> removedTeams = new HashSet<>();
+
+    public void add(Long teamId, long count, long ageSum) {
+        if(teamId == null) {
+            return;
+        }
+
+        long[] change = changes.computeIfAbsent(teamId, key -> new long[2]);
+        change[0] += count;
+        change[1] += ageSum;
+    }
+
+    public void removeTeam(Long teamId) {
+        changes.remove(teamId);
+        removedTeams.add(teamId);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty() && removedTeams.isEmpty();
+    }
+
+    // 변경 sql이 flush된 뒤 같은 transaction에서 호출
+    public void apply(SharedSessionContract session) {
+        for (Long teamId : removedTeams) {
+            session.createNativeMutationQuery(REMOVE).setParameter("teamId", teamId).executeUpdate();
+        }
+
+        changes.forEach((teamId, change) -> {
+            session.createNativeMutationQuery(UPSERT)
+                   .setParameter("teamId", teamId)
+                   .setParameter("count", change[0])
+                   .setParameter("ageSum", change[1])
+                   .executeUpdate();
+            session.createNativeMutationQuery(MIN_MAX).setParameter("teamId", teamId).executeUpdate();
+        });
+    }
+
+}
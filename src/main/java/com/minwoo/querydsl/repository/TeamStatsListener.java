@@ -0,0 +1,91 @@
+package com.minwoo.querydsl.repository;
+
+import com.minwoo.querydsl.entity.Member;
+import com.minwoo.querydsl.entity.Team;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// member 추가/삭제/team 이동(changeTeam)/age 변경을 team_stats에 반영하는 hibernate event listener(JpaConfig에서 등록)
+// 변경량은 session(transaction)별로 모았다가 commit 직전 flush가 끝난 뒤 같은 transaction에서 반영(rollback이면 버림)
+// jpql bulk update/delete는 event가 없으므로 TeamStatsService.tracking으로 감싸거나 rebuild로 보정
+@Component
+public class TeamStatsListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final Map<EventSource, TeamStatsDelta> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if(event.getEntity() instanceof Member member) {
+            delta(event.getSession()).add(teamId(member.getTeam()), 1, member.getAge());
+        } else if(event.getEntity() instanceof Team team) {
+            delta(event.getSession()).add(team.getId(), 0, 0); // member가 없어도 row 생성
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if(!(event.getEntity() instanceof Member) || event.getOldState() == null) {
+            return; // 이전 값을 모르는 경우(merge 등)는 rebuild로 보정
+        }
+
+        int teamIndex = event.getPersister().getEntityMetamodel().getPropertyIndex("team");
+        int ageIndex = event.getPersister().getEntityMetamodel().getPropertyIndex("age");
+
+        Long oldTeamId = teamId(event.getOldState()[teamIndex]);
+        Long newTeamId = teamId(event.getState()[teamIndex]);
+        int oldAge = (Integer) event.getOldState()[ageIndex];
+        int newAge = (Integer) event.getState()[ageIndex];
+
+        if(oldAge == newAge && (oldTeamId == null ? newTeamId == null : oldTeamId.equals(newTeamId))) {
+            return;
+        }
+
+        TeamStatsDelta delta = delta(event.getSession());
+        delta.add(oldTeamId, -1, -oldAge);
+        delta.add(newTeamId, 1, newAge);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if(event.getEntity() instanceof Member member) {
+            delta(event.getSession()).add(teamId(member.getTeam()), -1, -member.getAge());
+        } else if(event.getEntity() instanceof Team team) {
+            delta(event.getSession()).removeTeam(team.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    // session당 처음 변경 시 commit 직전/종료 process 등록
+    private TeamStatsDelta delta(EventSource session) {
+        return pending.computeIfAbsent(session, key -> {
+            TeamStatsDelta delta = new TeamStatsDelta();
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) s -> {
+                pending.remove(session);
+                delta.apply(s);
+            });
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> pending.remove(session));
+            return delta;
+        });
+    }
+
+    private static Long teamId(Object team) {
+        return team instanceof Team t ? t.getId() : null; // proxy라도 id는 초기화 없이 조회
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.minwoo.querydsl.repository;
+
+import com.minwoo.querydsl.entity.TeamStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TeamStatsRepository extends JpaRepository<TeamStats, Long> {
+}
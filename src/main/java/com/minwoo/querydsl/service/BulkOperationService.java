@@ -0,0 +1,192 @@
+package com.minwoo.querydsl.service;
+
+import com.minwoo.querydsl.entity.Member;
+import com.minwoo.querydsl.entity.Team;
+import com.minwoo.querydsl.repository.MemberIndex;
+import com.minwoo.querydsl.repository.TeamCache;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// bulk update/delete를 pk 범위(chunk)로 나누어 chunk마다 짧은 transaction으로 실행
+// -> 한 번의 거대한 update로 범위 전체에 lock이 오래 걸리거나 replication lag이 생기는 것을 방지
+// 호출한 쪽 영속성 context에 남은 entity 중 chunk가 실제로 변경한 것만 detach(bulk 연산 후 em.clear() 불필요)
+// 각 chunk는 별도 transaction(REQUIRES_NEW, 다른 connection)이므로
+// - 쓰기 transaction 안에서는 호출 불가 : 호출 transaction이 잡은 row lock을 chunk가 lock wait timeout까지 기다리게 됨
+// - 호출한 쪽 영속성 context에 flush 되지 않은 변경이 있으면 호출 불가 : chunk에 보이지 않고 detach 시 유실될 수 있음
+// jpql bulk 연산은 entity listener가 호출되지 않으므로 MemberIndex(진행 중에는 내리고 끝나면 다시 load), TeamCache는 여기서 갱신
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkOperationService {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManagerFactory emf;
+    private final PlatformTransactionManager transactionManager;
+    private final TeamStatsService teamStatsService;
+    private final MemberIndex memberIndex;
+    private final TeamCache teamCache;
+
+    @Value("${member.bulk.chunk-size:10000}")
+    private long chunkSize;
+
+    @Value("${member.bulk.pause-millis:0}")
+    private long pauseMillis;
+
+    public record Progress(long chunk, long totalChunks, long chunkRows, long totalRows, long lastId) {
+    }
+
+    // ex) update(member, member.id, member.age.lt(20), update -> update.set(member.age, member.age.add(1)), progress -> ...)
+    public long update(EntityPath<?> entity, NumberPath<Long> id, Predicate predicate,
+                       Consumer<JPAUpdateClause> assignments, Consumer<Progress> progressListener) {
+        return execute(entity, id, predicate, range -> {
+            JPAUpdateClause update = queryFactory.update(entity).where(predicate, range);
+            assignments.accept(update);
+            return update.execute();
+        }, progressListener);
+    }
+
+    public long delete(EntityPath<?> entity, NumberPath<Long> id, Predicate predicate, Consumer<Progress> progressListener) {
+        return execute(entity, id, predicate,
+                range -> queryFactory.delete(entity).where(predicate, range).execute(),
+                progressListener);
+    }
+
+    private long execute(EntityPath<?> entity, NumberPath<Long> id, Predicate predicate,
+                         Function<BooleanExpression, Long> chunkOperation, Consumer<Progress> progressListener) {
+
+        if(TransactionSynchronizationManager.isActualTransactionActive() && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new IllegalStateException("bulk operation must not run inside a read-write transaction (chunks run in their own transactions)");
+        }
+
+        // chunk transaction에서는 다른 EntityManager가 bind되므로 호출한 쪽 EntityManager를 먼저 확보
+        EntityManager callerEm = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if(callerEm != null && callerEm.unwrap(Session.class).isDirty()) {
+            throw new IllegalStateException("flush or discard pending changes before a bulk operation");
+        }
+
+        Tuple bounds = queryFactory
+                .select(id.min(), id.max())
+                .from(entity)
+                .where(predicate)
+                .fetchOne();
+
+        Long minId = bounds == null ? null : bounds.get(id.min());
+        Long maxId = bounds == null ? null : bounds.get(id.max());
+        if(minId == null) {
+            return 0;
+        }
+
+        boolean reloadIndex = entity.getType() == Member.class && memberIndex.isReady();
+        if(reloadIndex) {
+            memberIndex.clear(); // 진행 중에는 db로 조회
+        }
+
+        try {
+            return executeChunks(entity, id, predicate, minId, maxId, callerEm, chunkOperation, progressListener);
+        } finally {
+            if(reloadIndex) {
+                memberIndex.load(); // 일부 chunk만 commit되고 실패한 경우도 반영
+            }
+            if(entity.getType() == Team.class) {
+                teamCache.invalidate();
+            }
+        }
+    }
+
+    private long executeChunks(EntityPath<?> entity, NumberPath<Long> id, Predicate predicate, long minId, long maxId, EntityManager callerEm,
+                               Function<BooleanExpression, Long> chunkOperation, Consumer<Progress> progressListener) {
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        long totalChunks = (maxId - minId) / chunkSize + 1;
+        long totalRows = 0;
+
+        for (long chunk = 0; chunk < totalChunks; chunk++) {
+            long fromId = minId + chunk * chunkSize;
+            long toId = Math.min(fromId + chunkSize - 1, maxId);
+
+            // member의 age/team 변경, 삭제는 같은 chunk transaction에서 team_stats에도 반영
+            // 변경 전에 대상 id를 조회해 두고 호출한 쪽 영속성 context에서는 그 entity만 detach
+            Set<Long> changedIds = new HashSet<>();
+            Long chunkRows = chunkTransaction.execute(status -> {
+                BooleanExpression range = id.between(fromId, toId);
+                changedIds.addAll(queryFactory.select(id).from(entity).where(predicate, range).fetch());
+                return teamStatsService.tracking(entity.getType(), fromId, toId, () -> chunkOperation.apply(range));
+            });
+            totalRows += chunkRows;
+
+            evict(callerEm, entity.getType(), changedIds);
+
+            Progress progress = new Progress(chunk + 1, totalChunks, chunkRows, totalRows, toId);
+            log.info("bulk {} chunk {}/{} : {} rows (total {}, last id {})",
+                    entity.getType().getSimpleName(), progress.chunk(), totalChunks, chunkRows, totalRows, toId);
+            progressListener.accept(progress);
+
+            if(chunk + 1 < totalChunks) {
+                pause();
+            }
+        }
+
+        return totalRows;
+    }
+
+    private void evict(EntityManager callerEm, Class<?> type, Set<Long> changedIds) {
+        changedIds.forEach(changedId -> emf.getCache().evict(type, changedId)); // 2차 cache를 사용하는 경우
+
+        if(callerEm == null || changedIds.isEmpty()) {
+            return;
+        }
+
+        List<Object> staleEntities = new ArrayList<>();
+        SessionImplementor session = callerEm.unwrap(SessionImplementor.class);
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if(type.isInstance(entry.getKey()) && entry.getValue().getId() instanceof Number entityId
+                    && changedIds.contains(entityId.longValue())) {
+                staleEntities.add(entry.getKey());
+            }
+        }
+        staleEntities.forEach(callerEm::detach);
+    }
+
+    // chunk 사이 대기(replica가 따라올 시간, 다른 transaction의 lock 획득 기회)
+    private void pause() {
+        if(pauseMillis <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("bulk operation interrupted", e);
+        }
+    }
+
+}
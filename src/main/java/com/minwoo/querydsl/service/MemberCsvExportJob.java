@@ -0,0 +1,320 @@
+package com.minwoo.querydsl.service;
+
+import com.minwoo.querydsl.dto.MemberTeamDto;
+import com.minwoo.querydsl.repository.MemberJpaRepository;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.minwoo.querydsl.entity.QMember.member;
+
+// 전체 member + team을 csv 파일로 export
+// member_id 범위를 partition으로 나눠 병렬로 각자 part 파일에 쓰고 마지막에 순서대로 이어 붙임(FileChannel.transferTo)
+// - dto projection + streaming result set(member.stream.fetch-size)이라 row 수와 관계없이 heap 사용량 일정, entity 생성 없음
+// - gzip은 partition마다 독립된 gzip member로 쓰고 이어 붙임(여러 member가 이어진 gzip 파일은 표준 형식, gunzip/GZIPInputStream으로 읽힘)
+// - 같은 directory의 임시 파일에 다 쓴 뒤 rename(ATOMIC_MOVE) : 읽는 쪽은 이전 파일 또는 완성된 파일만 봄(실패 시 이전 파일 유지)
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MemberCsvExportJob {
+
+    private static final byte[] HEADER = "member_id,username,age,team_id,team_name\n".getBytes(StandardCharsets.UTF_8);
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final JPAQueryFactory queryFactory;
+    private final AsyncTaskExecutor taskExecutor;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${member.stream.fetch-size}")
+    private int fetchSize;
+
+    @Value("${member.export.dir:export}")
+    private Path exportDir;
+
+    @Value("${member.export.partitions:4}")
+    private int partitions;
+
+    @Value("${member.export.gzip:true}")
+    private boolean gzip;
+
+    public record Result(Path file, long rows, long millis) {
+
+        public long rowsPerSecond() {
+            return millis == 0 ? rows : rows * 1000 / millis;
+        }
+
+    }
+
+    // member.export.cron이 "-"(기본값)이면 실행하지 않음
+    @Scheduled(cron = "${member.export.cron:-}")
+    public void daily() throws IOException {
+        Files.createDirectories(exportDir);
+        export(exportDir.resolve("members-" + LocalDate.now() + (gzip ? ".csv.gz" : ".csv")), gzip, partitions);
+    }
+
+    public Result export(Path file, boolean gzip, int partitions) throws IOException {
+        long start = System.nanoTime();
+
+        Tuple bounds = queryFactory.select(member.id.min(), member.id.max()).from(member).fetchOne();
+        Long minId = bounds == null ? null : bounds.get(member.id.min());
+        Long maxId = bounds == null ? null : bounds.get(member.id.max());
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, file.getFileName() + ".", ".tmp");
+        List<Path> parts = new ArrayList<>();
+        long rows = 0;
+        try {
+            if(minId != null) {
+                List<Future<Long>> futures = new ArrayList<>();
+                long partitionSize = (maxId - minId) / partitions + 1;
+
+                for (int i = 0; i < partitions; i++) {
+                    long fromId = minId + i * partitionSize;
+                    long toId = Math.min(fromId + partitionSize - 1, maxId);
+                    if(fromId > maxId) {
+                        break;
+                    }
+
+                    Path part = Files.createTempFile(directory, file.getFileName() + ".part" + i + "-", ".tmp");
+                    parts.add(part);
+                    boolean header = i == 0;
+                    futures.add(taskExecutor.submit(() -> writePartition(part, fromId, toId, header, gzip)));
+                }
+
+                rows = await(futures);
+            }
+
+            concat(temp, parts, gzip);
+            copyPermissions(temp, file);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE); // 기존 파일은 교체됨
+        } finally {
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+            Files.deleteIfExists(temp); // 실패한 경우
+        }
+
+        Result result = new Result(file, rows, (System.nanoTime() - start) / 1_000_000);
+        log.info("member export {} : {} rows in {} ms ({} rows/s, {} partitions)",
+                file, result.rows(), result.millis(), result.rowsPerSecond(), parts.size());
+        return result;
+    }
+
+    // createTempFile은 소유자만 읽을 수 있게(rw-------) 만들고 rename은 권한을 그대로 유지
+    // -> 교체 전에 기존 파일의 권한(처음이면 rw-r--r--)으로 맞춤, posix가 아닌 file system(windows)은 그대로
+    private static void copyPermissions(Path temp, Path file) throws IOException {
+        if(!temp.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return;
+        }
+
+        Set<PosixFilePermission> permissions = Files.exists(file)
+                ? Files.getPosixFilePermissions(file)
+                : PosixFilePermissions.fromString("rw-r--r--");
+        Files.setPosixFilePermissions(temp, permissions);
+    }
+
+    // partition마다 별도 thread/connection, streaming 중에는 connection이 필요하므로 transaction 안에서 읽음
+    private long writePartition(Path part, long fromId, long toId, boolean header, boolean gzip) throws IOException {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             CsvWriter writer = new CsvWriter(channel, gzip)) {
+            if(header) {
+                writer.write(HEADER);
+            }
+
+            return readOnly.execute(status -> {
+                long count = 0;
+                try (Stream<MemberTeamDto> stream = memberJpaRepository.streamRange(fromId, toId, fetchSize)) {
+                    Iterator<MemberTeamDto> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        writer.writeRow(iterator.next());
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        }
+    }
+
+    private static long await(List<Future<Long>> futures) throws IOException {
+        long rows = 0;
+        try {
+            for (Future<Long> future : futures) {
+                rows += future.get();
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException("member export interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if(e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if(e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IllegalStateException("member export failed", e.getCause());
+        }
+        return rows;
+    }
+
+    // part 파일을 member_id 순서대로 이어 붙임(kernel에서 복사, heap을 거치지 않음)
+    private static void concat(Path file, List<Path> parts, boolean gzip) throws IOException {
+        try (FileChannel target = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if(parts.isEmpty()) { // member가 없어도 header는 씀
+                try (CsvWriter writer = new CsvWriter(target, gzip)) {
+                    writer.write(HEADER);
+                }
+            }
+
+            for (Path part : parts) {
+                try (FileChannel source = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = source.size();
+                    while (position < size) {
+                        position += source.transferTo(position, size - position, target);
+                    }
+                }
+            }
+            target.force(true); // rename 전에 내용을 disk에 기록
+        }
+    }
+
+    // csv 한 줄을 byte로 만들어 buffer에 모았다가 channel(또는 gzip)로 write
+    private static class CsvWriter implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final GZIPOutputStream gzip;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final StringBuilder line = new StringBuilder(128);
+
+        CsvWriter(FileChannel channel, boolean gzip) throws IOException {
+            this.channel = channel;
+            this.gzip = gzip ? new GZIPOutputStream(nonClosing(channel), BUFFER_SIZE) : null;
+        }
+
+        void writeRow(MemberTeamDto row) throws IOException {
+            line.setLength(0);
+            line.append(row.getMemberId()).append(',');
+            appendText(row.getUsername());
+            line.append(',').append(row.getAge()).append(',');
+            if(row.getTeamId() != null) {
+                line.append(row.getTeamId());
+            }
+            line.append(',');
+            appendText(row.getTeamName());
+            line.append('\n');
+            write(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        // , " 줄바꿈이 있으면 "로 감싸고 "는 ""로(RFC 4180)
+        private void appendText(String value) {
+            if(value == null) {
+                return;
+            }
+
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+
+            if(!quote) {
+                line.append(value);
+                return;
+            }
+            line.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+
+        void write(byte[] bytes) throws IOException {
+            if(bytes.length > buffer.remaining()) {
+                flush();
+            }
+            if(bytes.length > buffer.capacity()) {
+                writeOut(ByteBuffer.wrap(bytes));
+                return;
+            }
+            buffer.put(bytes);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            writeOut(buffer);
+            buffer.clear();
+        }
+
+        private void writeOut(ByteBuffer bytes) throws IOException {
+            if(gzip != null) {
+                gzip.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                bytes.position(bytes.limit());
+                return;
+            }
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+
+        // gzip trailer까지 쓰고 channel은 호출한 쪽에서 close
+        @Override
+        public void close() throws IOException {
+            flush();
+            if(gzip != null) {
+                gzip.finish();
+                gzip.flush();
+            }
+        }
+
+        private static OutputStream nonClosing(FileChannel channel) {
+            OutputStream out = Channels.newOutputStream(channel);
+            return new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,250 @@
+package com.minwoo.querydsl.service;
+
+import com.minwoo.querydsl.entity.Member;
+import com.minwoo.querydsl.entity.Team;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.minwoo.querydsl.entity.QTeam.team;
+import static org.springframework.util.StringUtils.hasText;
+
+// csv(username,age,team_name)를 한 줄씩 읽어 member를 batch 단위로 insert
+// - batch(member.import.batch-size)마다 별도 transaction, persist 후 flush/clear
+//   -> hibernate jdbc batch(batch_size), mysql은 rewriteBatchedStatements=true로 multi-row insert
+// - 실패한 batch는 그 batch만 rollback하고 오류를 기록한 뒤 계속 진행, 형식이 잘못된 줄은 건너뛰고 기록
+// - team은 name -> id map으로 찾고 없으면 바로 생성(별도 transaction이라 member batch가 rollback 되어도 유지)
+// entity로 insert하므로 team_stats, MemberIndex 등 entity event 기반 처리도 그대로 반영됨
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MemberCsvImportService {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${member.import.batch-size:1000}")
+    private int batchSize;
+
+    public record Error(long fromLine, long toLine, String message) {
+    }
+
+    public record Result(long rows, long inserted, long failed, long millis, List<Error> errors) {
+
+        public long rowsPerSecond() {
+            return millis == 0 ? inserted : inserted * 1000 / millis;
+        }
+
+    }
+
+    private record Row(long line, String username, int age, String teamName) {
+    }
+
+    public Result importCsv(InputStream in, boolean header) throws IOException {
+        long start = System.nanoTime();
+
+        TransactionTemplate batchTransaction = new TransactionTemplate(transactionManager);
+        batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Map<String, Long> teamIds = teamIds();
+        List<Error> errors = new ArrayList<>();
+        List<Row> batch = new ArrayList<>(batchSize);
+        long rows = 0;
+        long inserted = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        long[] line = {0};
+        boolean skipHeader = header;
+        while (true) {
+            long fromLine = line[0] + 1;
+            List<String> record;
+            try {
+                record = readRecord(reader, line);
+            } catch (IllegalArgumentException e) {
+                // 닫히지 않은 " : 파일 끝까지 읽었으므로 그 범위를 오류로 기록하고 종료(모아 둔 batch는 아래에서 insert)
+                if(!skipHeader) {
+                    rows++;
+                }
+                errors.add(new Error(fromLine, line[0], e.getMessage()));
+                break;
+            }
+
+            if(record == null) {
+                break;
+            }
+            if(skipHeader) {
+                skipHeader = false;
+                continue;
+            }
+            if(record.size() == 1 && record.get(0).isEmpty()) {
+                continue; // 빈 줄
+            }
+
+            rows++;
+            try {
+                batch.add(parse(line[0], record));
+            } catch (IllegalArgumentException e) {
+                errors.add(new Error(fromLine, line[0], e.getMessage()));
+                continue;
+            }
+
+            if(batch.size() == batchSize) {
+                inserted += insert(batch, teamIds, batchTransaction, errors);
+                batch.clear();
+            }
+        }
+        inserted += insert(batch, teamIds, batchTransaction, errors);
+
+        Result result = new Result(rows, inserted, rows - inserted, (System.nanoTime() - start) / 1_000_000, errors);
+        log.info("member import : {} rows, {} inserted, {} failed in {} ms ({} rows/s)",
+                result.rows(), result.inserted(), result.failed(), result.millis(), result.rowsPerSecond());
+        return result;
+    }
+
+    private long insert(List<Row> batch, Map<String, Long> teamIds, TransactionTemplate batchTransaction, List<Error> errors) {
+        if(batch.isEmpty()) {
+            return 0;
+        }
+
+        for (Row row : batch) {
+            if(hasText(row.teamName()) && !teamIds.containsKey(row.teamName())) {
+                teamIds.put(row.teamName(), createTeam(row.teamName(), batchTransaction));
+            }
+        }
+
+        try {
+            batchTransaction.executeWithoutResult(status -> {
+                Map<String, Team> teams = new HashMap<>(); // batch(영속성 context) 안에서만 재사용
+                for (Row row : batch) {
+                    Team rowTeam = hasText(row.teamName())
+                            ? teams.computeIfAbsent(row.teamName(), name -> em.getReference(Team.class, teamIds.get(name)))
+                            : null;
+                    em.persist(new Member(row.username(), row.age(), rowTeam));
+                }
+                em.flush();
+                em.clear();
+            });
+            return batch.size();
+        } catch (RuntimeException e) {
+            long fromLine = batch.get(0).line();
+            long toLine = batch.get(batch.size() - 1).line();
+            log.warn("member import batch failed (line {} ~ {})", fromLine, toLine, e);
+            errors.add(new Error(fromLine, toLine, rootMessage(e)));
+            return 0;
+        }
+    }
+
+    private Long createTeam(String name, TransactionTemplate transaction) {
+        return transaction.execute(status -> {
+            Team created = new Team(name);
+            em.persist(created);
+            return created.getId();
+        });
+    }
+
+    // team name은 unique가 아니므로 같은 이름이 여럿이면 먼저 만들어진 team
+    private Map<String, Long> teamIds() {
+        Map<String, Long> teamIds = new HashMap<>();
+        for (Tuple row : queryFactory.select(team.name, team.id).from(team).orderBy(team.id.desc()).fetch()) {
+            if(row.get(team.name) != null) {
+                teamIds.put(row.get(team.name), row.get(team.id));
+            }
+        }
+        return teamIds;
+    }
+
+    private static Row parse(long line, List<String> record) {
+        if(record.size() < 2 || record.size() > 3) {
+            throw new IllegalArgumentException("expected username,age[,team_name] but got " + record.size() + " columns");
+        }
+        if(!hasText(record.get(0))) {
+            throw new IllegalArgumentException("username is empty");
+        }
+
+        try {
+            int age = Integer.parseInt(record.get(1).trim());
+            return new Row(line, record.get(0), age, record.size() == 3 ? record.get(2) : null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid age : " + record.get(1));
+        }
+    }
+
+    // csv record 1개(RFC 4180 : "로 감싼 값 안의 , "" 줄바꿈 허용), 끝이면 null
+    // "가 닫히지 않으면 파일 끝까지 읽은 뒤 IllegalArgumentException(line[0]은 마지막 줄)
+    private static List<String> readRecord(BufferedReader reader, long[] line) throws IOException {
+        String text = reader.readLine();
+        if(text == null) {
+            return null;
+        }
+        line[0]++;
+        long startLine = line[0];
+
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if(i == text.length()) {
+                if(!quoted) {
+                    break;
+                }
+                text = reader.readLine(); // 값 안의 줄바꿈
+                if(text == null) {
+                    throw new IllegalArgumentException("unterminated quote from line " + startLine);
+                }
+                line[0]++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+
+            char c = text.charAt(i++);
+            if(quoted) {
+                if(c != '"') {
+                    field.append(c);
+                } else if(i < text.length() && text.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if(c == '"') {
+                quoted = true;
+            } else if(c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+}
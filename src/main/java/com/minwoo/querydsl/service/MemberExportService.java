@@ -0,0 +1,54 @@
+package com.minwoo.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.minwoo.querydsl.dto.MemberSearchCondition;
+import com.minwoo.querydsl.dto.MemberTeamDto;
+import com.minwoo.querydsl.repository.MemberJpaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+
+    private static final int FLUSH_INTERVAL = 1000;
+    private static final byte NEW_LINE = '\n';
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${member.stream.fetch-size}")
+    private int fetchSize;
+
+    // 전체 결과를 list로 만들지 않고 한 row씩 json 한 줄(ndjson)로 바로 write -> row 수와 관계 없이 heap 사용량 일정
+    @Transactional(readOnly = true)
+    public long writeNdjson(MemberSearchCondition condition, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(MemberTeamDto.class);
+        long count = 0;
+
+        try (Stream<MemberTeamDto> stream = memberJpaRepository.streamWhere(condition, fetchSize)) {
+            Iterator<MemberTeamDto> iterator = stream.iterator();
+
+            while (iterator.hasNext()) {
+                out.write(writer.writeValueAsBytes(iterator.next()));
+                out.write(NEW_LINE);
+
+                if(++count % FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+        }
+
+        out.flush();
+        return count;
+    }
+
+}
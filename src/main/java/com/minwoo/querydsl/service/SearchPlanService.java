@@ -0,0 +1,143 @@
+package com.minwoo.querydsl.service;
+
+import com.minwoo.querydsl.dto.MemberSearchCondition;
+import com.minwoo.querydsl.dto.SearchPlan;
+import com.minwoo.querydsl.metrics.SqlCapture;
+import com.minwoo.querydsl.repository.InvalidSearchConditionException;
+import com.minwoo.querydsl.repository.MemberRepository;
+import com.minwoo.querydsl.repository.TeamCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.springframework.util.StringUtils.hasText;
+
+// MemberSearchCondition 4개 조건의 사용 여부 조합(16가지 shape)마다 searchPageComplex가 만드는 sql의 EXPLAIN 결과
+// hibernate 6는 실행 없이 최종 sql만 얻는 방법이 마땅치 않아 실제로 한 번 실행(contents + count)하면서 sql을 수집
+// full scan 판정: mysql은 type=ALL, h2(test)는 plan의 /* schema.table.tableScan */
+// MemberIndex를 사용 중이면 searchPageComplex가 sql을 실행하지 않으므로 항상 db로 조회(searchPageComplexFromDb)
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true) // 조회와 EXPLAIN이 같은 datasource(replica routing 시 replica)에서 실행되도록
+public class SearchPlanService {
+
+    private static final String[] CONDITIONS = {"username", "teamName", "ageGoe", "ageLoe"};
+    private static final Pattern H2_TABLE_SCAN = Pattern.compile("/\\*\\s*\\w+\\.(\\w+)\\.tableScan");
+
+    private final MemberRepository memberRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final SqlCapture sqlCapture;
+    private final TeamCache teamCache;
+
+    // sample에 값이 없는 조건은 기본값 사용(teamName은 존재하는 team 중 하나)
+    public List<SearchPlan> explainAll(MemberSearchCondition sample) {
+        String teamName = teamName(sample);
+
+        List<SearchPlan> plans = new ArrayList<>();
+        for (int shape = 0; shape < 1 << CONDITIONS.length; shape++) {
+            plans.addAll(explain(condition(shape, sample, teamName), shape));
+        }
+        return plans;
+    }
+
+    // 없는 team이면 조건이 1 = 2가 되어 EXPLAIN이 index 사용 여부 없이 "Impossible WHERE"만 반환 -> full scan을 찾지 못하므로 거부
+    private String teamName(MemberSearchCondition sample) {
+        String teamName = hasText(sample.getTeamName())
+                ? sample.getTeamName()
+                : jdbcTemplate.queryForList("select name from team where name is not null order by team_id limit 1", String.class)
+                              .stream().findFirst().orElse(null);
+
+        if(teamName == null || teamCache.idsOf(teamName).isEmpty()) {
+            throw new InvalidSearchConditionException("teamName must be an existing team: " + teamName);
+        }
+        return teamName;
+    }
+
+    private List<SearchPlan> explain(MemberSearchCondition condition, int shape) {
+
+        List<SqlCapture.Statement> executed;
+        sqlCapture.start();
+        try {
+            // 2번째 page(size 1)는 contents 수와 관계없이 항상 count query까지 실행됨
+            memberRepository.searchPageComplexFromDb(condition, PageRequest.of(1, 1));
+        } finally {
+            executed = sqlCapture.finish();
+        }
+
+        List<SearchPlan> plans = new ArrayList<>();
+        for (SqlCapture.Statement statement : executed) {
+            String sql = withoutComment(statement.sql());
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("explain " + sql, statement.parameters().toArray());
+            plans.add(new SearchPlan(shapeName(shape), sql, statement.parameters(), plan, fullScanTables(plan)));
+        }
+        return plans;
+    }
+
+    private static MemberSearchCondition condition(int shape, MemberSearchCondition sample, String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if((shape & 1) != 0) {
+            condition.setUsername(sample.getUsername() != null ? sample.getUsername() : "member1");
+        }
+        if((shape & 2) != 0) {
+            condition.setTeamName(teamName);
+        }
+        if((shape & 4) != 0) {
+            condition.setAgeGoe(sample.getAgeGoe() != null ? sample.getAgeGoe() : 10);
+        }
+        if((shape & 8) != 0) {
+            condition.setAgeLoe(sample.getAgeLoe() != null ? sample.getAgeLoe() : 30);
+        }
+        return condition;
+    }
+
+    // use_sql_comments로 앞에 붙은 jpql 주석 제거
+    private static String withoutComment(String sql) {
+        String trimmed = sql.strip();
+        if(trimmed.startsWith("/*") && trimmed.contains("*/")) {
+            return trimmed.substring(trimmed.indexOf("*/") + 2).strip();
+        }
+        return trimmed;
+    }
+
+    private static String shapeName(int shape) {
+        StringJoiner name = new StringJoiner("+");
+        for (int i = 0; i < CONDITIONS.length; i++) {
+            if((shape & 1 << i) != 0) {
+                name.add(CONDITIONS[i]);
+            }
+        }
+        return shape == 0 ? "none" : name.toString();
+    }
+
+    static List<String> fullScanTables(List<Map<String, Object>> plan) {
+        Set<String> tables = new LinkedHashSet<>();
+        for (Map<String, Object> row : plan) {
+            if(row.containsKey("type")) { // mysql, 접근 대상 table마다 1 row
+                if("ALL".equals(row.get("type")) && row.get("table") != null) {
+                    tables.add(row.get("table").toString());
+                }
+                continue;
+            }
+
+            for (Object text : row.values()) { // h2, 전체 plan이 text 1개
+                Matcher matcher = H2_TABLE_SCAN.matcher(String.valueOf(text));
+                while (matcher.find()) {
+                    tables.add(matcher.group(1));
+                }
+            }
+        }
+        return new ArrayList<>(tables);
+    }
+
+}
@@ -0,0 +1,237 @@
+package com.minwoo.querydsl.service;
+
+import com.minwoo.querydsl.dto.TeamAgeStats;
+import com.minwoo.querydsl.repository.TeamCache;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.minwoo.querydsl.entity.QMember.member;
+
+// team별 age 집계(count/sum/avg/max/min group by team.name)를 db 대신 메모리 column 배열로 계산
+// member마다 age(int[])와 team 순번(int[])만 보관하고, 구간을 나눠 ForkJoinPool에서 병렬 집계 후 합침
+// snapshot은 첫 조회 시 만들고 이후 member.snapshot.refresh-millis 주기로 다시 만듦(그 사이 변경은 반영되지 않음)
+// 다시 만드는 동안 조회는 기존 snapshot 사용(lock을 기다리는 건 snapshot이 아직 없을 때뿐)
+@Service
+@RequiredArgsConstructor
+public class TeamAggregateSnapshot {
+
+    private static final int LOAD_BATCH = 10_000;
+    private static final int SPLIT_THRESHOLD = 1 << 16; // 이 row 수 이하는 한 thread에서 집계
+
+    private final JPAQueryFactory queryFactory;
+    private final TeamCache teamCache;
+
+    private final ReentrantLock refreshLock = new ReentrantLock(); // synchronized는 전체 조회 동안 virtual thread carrier를 점유(pinning)
+    private volatile Snapshot snapshot;
+
+    public List<TeamAgeStats> teamAgeStats() {
+        Snapshot current = snapshot;
+        if(current == null) {
+            current = loadIfAbsent();
+        }
+
+        Partial total = ForkJoinPool.commonPool().invoke(new Aggregate(current, 0, current.ages.length));
+        return byTeamName(current, total);
+    }
+
+    // 한 번도 조회하지 않았거나 이미 다른 thread가 만드는 중이면 건너뜀
+    @Scheduled(fixedDelayString = "${member.snapshot.refresh-millis:60000}")
+    public void scheduledRefresh() {
+        if(snapshot != null && refreshLock.tryLock()) {
+            try {
+                load();
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+    }
+
+    // 만드는 중인 thread가 있으면 끝나길 기다렸다가 다시 만듦(호출 시점 이후의 data 반영)
+    public Snapshot refresh() {
+        refreshLock.lock();
+        try {
+            return load();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // 첫 조회가 동시에 들어오면 lock을 먼저 잡은 요청만 load하고 나머지는 그 snapshot을 사용
+    private Snapshot loadIfAbsent() {
+        refreshLock.lock();
+        try {
+            Snapshot current = snapshot;
+            return current != null ? current : load();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // team이 있는 member만(group 예제의 inner join과 같음), member_id keyset으로 column만 조회
+    private Snapshot load() {
+        IntBuffer ages = new IntBuffer();
+        IntBuffer teamOrdinals = new IntBuffer();
+        Map<Long, Integer> ordinals = new HashMap<>();
+        List<Long> teamIds = new ArrayList<>();
+
+        Long lastId = null;
+        while (true) {
+            List<Tuple> rows = queryFactory
+                    .select(member.id, member.age, member.team.id)
+                    .from(member)
+                    .where(member.team.id.isNotNull(), lastId == null ? null : member.id.gt(lastId))
+                    .orderBy(member.id.asc())
+                    .limit(LOAD_BATCH)
+                    .fetch();
+
+            for (Tuple row : rows) {
+                Long teamId = row.get(member.team.id);
+                int ordinal = ordinals.computeIfAbsent(teamId, key -> {
+                    teamIds.add(key);
+                    return teamIds.size() - 1;
+                });
+                ages.add(row.get(member.age));
+                teamOrdinals.add(ordinal);
+            }
+
+            if(rows.size() < LOAD_BATCH) {
+                break;
+            }
+            lastId = rows.get(rows.size() - 1).get(member.id);
+        }
+
+        Snapshot loaded = new Snapshot(ages.toArray(), teamOrdinals.toArray(), teamIds.stream().mapToLong(Long::longValue).toArray());
+        snapshot = loaded;
+        return loaded;
+    }
+
+    // team name은 unique가 아니므로 같은 이름의 team은 합침(group by team.name), 결과는 이름순
+    private List<TeamAgeStats> byTeamName(Snapshot current, Partial total) {
+        Map<String, Partial> byName = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < current.teamIds.length; ordinal++) {
+            if(total.count[ordinal] == 0) {
+                continue;
+            }
+            String name = teamCache.nameOf(current.teamIds[ordinal]);
+            byName.computeIfAbsent(name, key -> new Partial(1)).merge(total, ordinal);
+        }
+
+        List<TeamAgeStats> results = new ArrayList<>(byName.size());
+        byName.forEach((name, stats) -> results.add(new TeamAgeStats(name, stats.count[0], stats.sum[0], stats.max[0], stats.min[0])));
+        results.sort(Comparator.comparing(TeamAgeStats::getTeamName, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return results;
+    }
+
+    // ages[i]는 teamIds[teamOrdinals[i]] team 소속 member의 age
+    public record Snapshot(int[] ages, int[] teamOrdinals, long[] teamIds) {
+    }
+
+    // [from, to) 구간 집계, 크면 반으로 나눠 fork 후 합침
+    private static class Aggregate extends RecursiveTask<Partial> {
+
+        private final Snapshot snapshot;
+        private final int from;
+        private final int to;
+
+        Aggregate(Snapshot snapshot, int from, int to) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if(to - from <= SPLIT_THRESHOLD) {
+                Partial partial = new Partial(snapshot.teamIds.length);
+                for (int i = from; i < to; i++) {
+                    partial.add(snapshot.teamOrdinals[i], snapshot.ages[i]);
+                }
+                return partial;
+            }
+
+            int mid = (from + to) >>> 1;
+            Aggregate left = new Aggregate(snapshot, from, mid);
+            left.fork();
+            Partial right = new Aggregate(snapshot, mid, to).compute();
+            return left.join().mergeAll(right);
+        }
+
+    }
+
+    // team 순번별 누적값
+    private static class Partial {
+
+        private final long[] count;
+        private final long[] sum;
+        private final int[] max;
+        private final int[] min;
+
+        Partial(int teams) {
+            count = new long[teams];
+            sum = new long[teams];
+            max = new int[teams];
+            min = new int[teams];
+            Arrays.fill(max, Integer.MIN_VALUE);
+            Arrays.fill(min, Integer.MAX_VALUE);
+        }
+
+        void add(int ordinal, int age) {
+            count[ordinal]++;
+            sum[ordinal] += age;
+            max[ordinal] = Math.max(max[ordinal], age);
+            min[ordinal] = Math.min(min[ordinal], age);
+        }
+
+        // other의 ordinal 값을 이 Partial의 0번에 합침(team name별 합산용)
+        void merge(Partial other, int ordinal) {
+            count[0] += other.count[ordinal];
+            sum[0] += other.sum[ordinal];
+            max[0] = Math.max(max[0], other.max[ordinal]);
+            min[0] = Math.min(min[0], other.min[ordinal]);
+        }
+
+        Partial mergeAll(Partial other) {
+            for (int i = 0; i < count.length; i++) {
+                count[i] += other.count[i];
+                sum[i] += other.sum[i];
+                max[i] = Math.max(max[i], other.max[i]);
+                min[i] = Math.min(min[i], other.min[i]);
+            }
+            return this;
+        }
+
+    }
+
+    private static class IntBuffer {
+
+        private int[] values = new int[1024];
+        private int size;
+
+        void add(int value) {
+            if(size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+    }
+
+}
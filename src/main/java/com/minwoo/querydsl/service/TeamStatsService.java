@@ -0,0 +1,133 @@
+package com.minwoo.querydsl.service;
+
+import com.minwoo.querydsl.entity.Member;
+import com.minwoo.querydsl.repository.TeamStatsDelta;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.minwoo.querydsl.entity.QMember.member;
+
+// team_stats 보정(bulk 연산 반영, 전체 재계산)
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TeamStatsService {
+
+    private static final int REBUILD_CHUNK = 1_000; // team 수(chunk마다 transaction 1개)
+
+    private static final String CHUNK_IDS = "select team_id from team where team_id > ? order by team_id limit ?";
+    // row가 없는 team(통계 도입 전 data)은 빈 row를 만든 뒤 REPAIR에서 계산
+    private static final String INSERT_MISSING = "insert into team_stats (team_id, member_count, age_sum, min_age, max_age) " +
+            "select t.team_id, 0, 0, null, null from team t where t.team_id between ? and ? " +
+            "and not exists (select 1 from team_stats s where s.team_id = t.team_id)";
+    // 각 subquery는 (team_id, age) index의 team 구간만 읽음
+    private static final String REPAIR = "update team_stats set " +
+            "member_count = (select count(*) from member m where m.team_id = team_stats.team_id), " +
+            "age_sum = (select coalesce(sum(m.age), 0) from member m where m.team_id = team_stats.team_id), " +
+            "min_age = (select min(m.age) from member m where m.team_id = team_stats.team_id), " +
+            "max_age = (select max(m.age) from member m where m.team_id = team_stats.team_id) " +
+            "where team_id between ? and ?";
+    private static final String DELETE_ORPHANS = "delete from team_stats where not exists (select 1 from team t where t.team_id = team_stats.team_id)";
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    // member_id 범위에 대한 bulk update/delete 전후의 team별 count/sum 차이를 반영(호출한 transaction 안에서)
+    // entity event가 없는 bulk 연산에서 age나 team_id가 바뀌는 경우용
+    public long tracking(Class<?> entityType, long fromId, long toId, Supplier<Long> bulkOperation) {
+        if(entityType != Member.class) {
+            return bulkOperation.get();
+        }
+
+        Map<Long, long[]> before = rangeStats(fromId, toId);
+        long rows = bulkOperation.get();
+        Map<Long, long[]> after = rangeStats(fromId, toId);
+
+        TeamStatsDelta delta = new TeamStatsDelta();
+        before.forEach((teamId, stats) -> delta.add(teamId, -stats[0], -stats[1]));
+        after.forEach((teamId, stats) -> delta.add(teamId, stats[0], stats[1]));
+        delta.apply(em.unwrap(Session.class));
+
+        return rows;
+    }
+
+    private Map<Long, long[]> rangeStats(long fromId, long toId) {
+        Map<Long, long[]> stats = new HashMap<>();
+        for (Tuple row : queryFactory
+                .select(member.team.id, member.count(), member.age.sum())
+                .from(member)
+                .where(member.id.between(fromId, toId), member.team.id.isNotNull())
+                .groupBy(member.team.id)
+                .fetch()) {
+            Number ageSum = row.get(2, Number.class); // hibernate 6는 int sum을 Long으로 반환
+            stats.put(row.get(member.team.id), new long[]{row.get(member.count()), ageSum == null ? 0 : ageSum.longValue()});
+        }
+        return stats;
+    }
+
+    // 누락된 event(jpql bulk, 직접 실행한 sql, merge 등)로 생긴 차이를 team_id 구간(chunk)마다 짧은 transaction으로 다시 계산
+    // 구간의 team_stats row를 update가 lock하므로 그 동안 commit하려는 member 변경(TeamStatsDelta)은 기다렸다가 계산 결과에 더함
+    // read committed : 계산은 이미 commit된 member만 보므로 기다린 변경이 두 번 반영되지 않음(별도 table로 교체하는 방식은 그 사이 commit된 변경을 잃음)
+    @Scheduled(cron = "${member.team-stats.rebuild-cron:0 0 4 * * *}")
+    public int rebuild() {
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        chunkTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+
+        int teams = 0;
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            List<Long> teamIds = jdbcTemplate.queryForList(CHUNK_IDS, Long.class, lastId, REBUILD_CHUNK);
+            if(teamIds.isEmpty()) {
+                break;
+            }
+
+            long from = teamIds.get(0);
+            long to = teamIds.get(teamIds.size() - 1);
+            teams += repair(chunkTransaction, from, to);
+
+            if(teamIds.size() < REBUILD_CHUNK) {
+                break;
+            }
+            lastId = to;
+        }
+
+        chunkTransaction.executeWithoutResult(status -> jdbcTemplate.update(DELETE_ORPHANS)); // 삭제된 team
+
+        log.info("team_stats rebuilt : {} teams", teams);
+        return teams;
+    }
+
+    // 같은 row를 member 변경이 먼저 insert 했으면(새로 member가 생긴 team) duplicate key -> 한 번 더(이번엔 이미 있는 row)
+    private int repair(TransactionTemplate chunkTransaction, long from, long to) {
+        try {
+            return chunkTransaction.execute(status -> repairChunk(from, to));
+        } catch (DuplicateKeyException e) {
+            return chunkTransaction.execute(status -> repairChunk(from, to));
+        }
+    }
+
+    private int repairChunk(long from, long to) {
+        jdbcTemplate.update(INSERT_MISSING, from, to);
+        return jdbcTemplate.update(REPAIR, from, to);
+    }
+
+}
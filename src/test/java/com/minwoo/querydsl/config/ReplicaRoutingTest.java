@@ -0,0 +1,118 @@
+package com.minwoo.querydsl.config;
+
+import com.minwoo.querydsl.dto.MemberSearchCondition;
+import com.minwoo.querydsl.dto.MemberTeamDto;
+import com.minwoo.querydsl.entity.Member;
+import com.minwoo.querydsl.repository.MemberRepository;
+import com.minwoo.querydsl.repository.TableVersions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// primary, replica 역할의 h2 in-memory db 2개로 routing 확인(복제는 되지 않으므로 replica에는 직접 schema/data 생성)
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "member.datasource.replicas[0].url=" + ReplicaRoutingTest.REPLICA_URL,
+        "member.datasource.replicas[0].username=sa",
+        "member.datasource.replicas[0].password=",
+        "member.datasource.lag-query=select lag_seconds from replica_lag",
+        "member.datasource.max-lag=1s",
+        "member.datasource.lag-check-interval=1000"
+})
+class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired DataSource dataSource;
+    @Autowired TableVersions tableVersions;
+
+    JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void copySchema() {
+        replica.execute("drop all objects");
+        primary.queryForList("script nodata", String.class).forEach(replica::execute);
+        replica.execute("create table replica_lag(lag_seconds bigint)");
+        replica.update("insert into replica_lag values (0)");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        primary.update("delete from member");
+    }
+
+    @Test
+    void readOnlyToReplica() throws SQLException {
+        routingDataSource().checkReplicas();
+
+        memberRepository.save(new Member("primaryMember", 10)); // 쓰기는 primary
+        replica.update("insert into member (member_id, username, age) values (-1, 'replicaMember', 20)");
+
+        assertThat(primary.queryForObject("select count(*) from member where username = 'primaryMember'", Long.class)).isEqualTo(1);
+        assertThat(memberRepository.search(new MemberSearchCondition()))
+                .extracting(MemberTeamDto::getUsername)
+                .containsExactly("replicaMember");
+    }
+
+    @Test
+    void staleReplicaFallbackToPrimary() throws SQLException {
+        replica.update("update replica_lag set lag_seconds = 60");
+        routingDataSource().checkReplicas();
+
+        memberRepository.save(new Member("primaryMember", 10));
+
+        assertThat(routingDataSource().getAvailableReplicas()).isEmpty();
+        List<MemberTeamDto> result = memberRepository.search(new MemberSearchCondition());
+        assertThat(result).extracting(MemberTeamDto::getUsername).containsExactly("primaryMember");
+    }
+
+    // 병렬 count(전용 pool)도 요청의 readOnly 여부로 routing : contents와 total이 같은 replica 기준
+    @Test
+    void parallelCountToReplica() throws SQLException {
+        routingDataSource().checkReplicas();
+
+        for (int i = 1; i <= 4; i++) {
+            replica.update("insert into member (member_id, username, age) values (?, ?, 20)", -i, "replicaMember" + i);
+        }
+
+        Page<MemberTeamDto> page = memberRepository.searchPageParallel(new MemberSearchCondition(), PageRequest.of(0, 3));
+        assertThat(page.getContent()).extracting(MemberTeamDto::getUsername).allMatch(username -> username.startsWith("replicaMember"));
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    // replica가 따라오기 전(max-lag + lag-check-interval) 이전 data로 만든 ETag가 계속 304로 쓰이지 않도록 한번 더 증가
+    @Test
+    void tableVersionAfterReplicaLag() throws InterruptedException {
+        memberRepository.save(new Member("primaryMember", 10));
+        long committed = tableVersions.get("member");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (tableVersions.get("member") == committed && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(tableVersions.get("member")).isGreaterThan(committed);
+    }
+
+    private ReplicaRoutingDataSource routingDataSource() throws SQLException {
+        return dataSource.unwrap(ReplicaRoutingDataSource.class);
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.minwoo.querydsl.controller;
+
+import com.minwoo.querydsl.dto.MemberCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// client 입력 오류는 500이 아닌 400으로 응답하는지 확인
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    void invalidCursorTest() throws Exception {
+        mockMvc.perform(get("/v4/members").param("cursor", new MemberCursor(1L, null).encode()))
+               .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v4/members").param("cursor", "!!!")) // base64 아님
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("cursor", new MemberCursor(1L, "abc").encode()).param("sort", "age"))
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("cursor", new MemberCursor(1L, null).encode()).param("sort", "age"))
+               .andExpect(status().isBadRequest()); // 정렬과 맞지 않는 cursor
+        mockMvc.perform(get("/v4/members").param("sort", "username"))
+               .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchBatchLimitTest() throws Exception {
+        mockMvc.perform(post("/v1/members/batch").contentType(MediaType.APPLICATION_JSON).content(conditions(50)))
+               .andExpect(status().isOk());
+        mockMvc.perform(post("/v1/members/batch").contentType(MediaType.APPLICATION_JSON).content(conditions(51)))
+               .andExpect(status().isBadRequest());
+    }
+
+    // 진단 endpoint는 member.diagnostics.enabled=true 일 때만 등록
+    @Test
+    void diagnosticsDisabledTest() throws Exception {
+        mockMvc.perform(get("/diagnostics/member-search-plans"))
+               .andExpect(status().isNotFound());
+    }
+
+    private static String conditions(int count) {
+        return IntStream.range(0, count)
+                        .mapToObj(i -> "{\"ageGoe\":" + i + "}")
+                        .collect(Collectors.joining(",", "[", "]"));
+    }
+
+}
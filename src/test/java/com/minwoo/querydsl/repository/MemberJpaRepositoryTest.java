@@ -4,6 +4,10 @@ import com.minwoo.querydsl.dto.MemberSearchCondition;
 import com.minwoo.querydsl.dto.MemberTeamDto;
 import com.minwoo.querydsl.entity.Member;
 import com.minwoo.querydsl.entity.Team;
+import com.minwoo.querydsl.metrics.JdbcStatementCounter;
+import com.minwoo.querydsl.metrics.LazyLoadDetector;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,8 +15,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -24,6 +31,15 @@ class MemberJpaRepositoryTest {
     @Autowired
     MemberJpaRepository memberJpaRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    JdbcStatementCounter jdbcStatementCounter;
+
+    @Autowired
+    LazyLoadDetector lazyLoadDetector;
+
     @Test
     void jpaTest() {
         Member member = new Member("member1", 10);
@@ -83,4 +99,68 @@ class MemberJpaRepositoryTest {
         assertThat(memberTeamDtos).extracting("username").containsExactly("member3", "member4");
     }
 
-}
\ No newline at end of file
+    @Test
+    void streamTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        try (Stream<MemberTeamDto> stream = memberJpaRepository.streamWhere(condition, 100)) {
+            List<MemberTeamDto> memberTeamDtos = stream.collect(Collectors.toList());
+            assertThat(memberTeamDtos).isEqualTo(memberJpaRepository.searchWhere(condition));
+        }
+    }
+
+    @Test
+    void metricsTest() {
+        em.persist(new Member("member1", 10));
+        em.flush();
+
+        jdbcStatementCounter.start();
+        memberJpaRepository.searchWhere(new MemberSearchCondition());
+        JdbcStatementCounter.Counts counts = jdbcStatementCounter.finish();
+
+        assertThat(counts.getStatements()).isEqualTo(1);
+        assertThat(counts.getRows()).isGreaterThanOrEqualTo(1);
+
+        Timer timer = meterRegistry.find("member.repository").tag("method", "searchWhere").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void lazyLoadTest() {
+        for (int i = 0; i < 11; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i, i, team));
+        }
+        em.flush();
+        em.clear();
+
+        // fetch join / entity graph : 추가 조회 없음
+        lazyLoadDetector.start();
+        memberJpaRepository.findAll_fetchJoin().forEach(m -> m.getTeam().getName());
+        memberJpaRepository.findByUsername_entityGraph("member1").forEach(m -> m.getTeam().getName());
+        assertThat(lazyLoadDetector.finish()).isZero();
+        em.clear();
+
+        // team 마다 1번씩 지연 로딩 -> threshold(10) 초과 시 실패
+        lazyLoadDetector.start();
+        try {
+            List<Member> members = memberJpaRepository.findAll();
+            assertThatThrownBy(() -> members.forEach(m -> m.getTeam().getName()))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("N+1");
+        } finally {
+            lazyLoadDetector.finish();
+        }
+    }
+
+}
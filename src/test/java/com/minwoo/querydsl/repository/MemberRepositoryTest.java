@@ -1,28 +1,63 @@
 package com.minwoo.querydsl.repository;
 
+import com.minwoo.querydsl.dto.CursorSlice;
+import com.minwoo.querydsl.dto.EstimatedPage;
+import com.minwoo.querydsl.dto.MemberDto;
 import com.minwoo.querydsl.dto.MemberSearchCondition;
 import com.minwoo.querydsl.dto.MemberTeamDto;
+import com.minwoo.querydsl.dto.TeamAgeStats;
+import com.minwoo.querydsl.dto.UserDto;
 import com.minwoo.querydsl.entity.Member;
 import com.minwoo.querydsl.entity.Team;
+import com.minwoo.querydsl.metrics.JdbcStatementCounter;
+import com.minwoo.querydsl.service.TeamAggregateSnapshot;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import static com.minwoo.querydsl.entity.QMember.member;
+import static com.minwoo.querydsl.entity.QTeam.team;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @SpringBootTest
 @Transactional
 class MemberRepositoryTest {
 
     @Autowired MemberRepository memberRepository;
+    @Autowired MemberQueryRepository memberQueryRepository;
+    @Autowired MemberSearchQueryCache memberSearchQueryCache;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired JPAQueryFactory queryFactory;
+    @Autowired TableVersions tableVersions;
+    @Autowired MemberIndex memberIndex;
+    @Autowired TeamAggregateSnapshot teamAggregateSnapshot;
+    @Autowired MemberStatistics memberStatistics;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired CountQueryExecutor countQueryExecutor;
+    @Autowired JdbcStatementCounter jdbcStatementCounter;
+
+    @Value("${member.count.pool-size:4}")
+    int countPoolSize;
     @PersistenceContext EntityManager em;
 
     @Test
@@ -71,6 +106,111 @@ class MemberRepositoryTest {
         assertThat(memberTeamDtos).extracting("username").containsExactly("member3", "member4");
     }
 
+    @Test
+    void searchQueryCacheTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(35);
+
+        memberSearchQueryCache.clear(); // 다른 test에서 만들어진 shape 제거
+        long missCount = memberSearchQueryCache.getMissCount();
+        long hitCount = memberSearchQueryCache.getHitCount();
+
+        List<MemberTeamDto> first = memberRepository.search(condition);
+        condition.setAgeGoe(25);
+        List<MemberTeamDto> second = memberRepository.search(condition);
+        condition.setAgeGoe(5);
+        List<MemberTeamDto> third = memberRepository.search(condition);
+
+        assertThat(first).extracting("username").containsExactly("member4");
+        assertThat(second).extracting("username").containsExactly("member3", "member4");
+        assertThat(third).isEqualTo(memberQueryRepository.search(condition));
+
+        // 같은 shape(teamName + ageGoe)은 처음 1번만 miss, 이후는 cache 사용
+        assertThat(memberSearchQueryCache.getMissCount() - missCount).isEqualTo(1);
+        assertThat(memberSearchQueryCache.getHitCount() - hitCount).isEqualTo(2);
+
+        // actuator(/actuator/metrics/member.search.query.cache)로 노출되는 값과 같음
+        assertThat(meterRegistry.get("member.search.query.cache").tag("result", "miss").functionCounter().count())
+                .isEqualTo((double) memberSearchQueryCache.getMissCount());
+        assertThat(meterRegistry.get("member.search.query.cache").tag("result", "hit").functionCounter().count())
+                .isEqualTo((double) memberSearchQueryCache.getHitCount());
+    }
+
+    @Test
+    void searchTeamCacheTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamC");
+        assertThat(memberRepository.search(condition)).isEmpty();
+
+        // 새로 추가된 team은 cache 무효화 후 다시 조회됨
+        Team teamC = new Team("teamC");
+        em.persist(teamC);
+        em.persist(new Member("member2", 20, teamC));
+        em.flush();
+
+        List<MemberTeamDto> memberTeamDtos = memberRepository.search(condition);
+        assertThat(memberTeamDtos).extracting("username").containsExactly("member2");
+        assertThat(memberTeamDtos).extracting("teamName").containsExactly("teamC");
+        assertThat(memberRepository.searchPageComplex(condition, PageRequest.of(0, 1)).getTotalElements()).isEqualTo(1);
+
+        // jpql bulk update는 listener가 없어 cache가 늦게 반영되지만 contents와 count는 같은 cache 값으로 조회하므로 일치
+        em.persist(new Member("member3", 30, teamC));
+        em.flush();
+        em.createQuery("update Team t set t.name = 'teamD' where t.id = :id").setParameter("id", teamC.getId()).executeUpdate();
+
+        for (Page<MemberTeamDto> page : List.of(memberRepository.searchPageSimple(condition, PageRequest.of(0, 1)),
+                                                memberRepository.searchPageComplex(condition, PageRequest.of(0, 1)),
+                                                memberRepository.searchPageWindow(condition, PageRequest.of(0, 1)))) {
+            assertThat(page.getContent()).hasSize(1);
+            assertThat(page.getTotalElements()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void searchBatchTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition byTeam = new MemberSearchCondition();
+        byTeam.setTeamName("teamA");
+        MemberSearchCondition byAge = new MemberSearchCondition();
+        byAge.setAgeGoe(20);
+        byAge.setAgeLoe(30);
+        MemberSearchCondition noMatch = new MemberSearchCondition();
+        noMatch.setUsername("none");
+
+        List<List<MemberTeamDto>> results = memberRepository.searchBatch(List.of(byTeam, byAge, noMatch));
+
+        // member2는 두 조건에 모두 포함
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0)).extracting("username").containsExactly("member1", "member2");
+        assertThat(results.get(1)).extracting("username").containsExactly("member2", "member3");
+        assertThat(results.get(2)).isEmpty();
+        assertThat(results.get(0)).isEqualTo(memberRepository.search(byTeam));
+    }
+
     @Test
     void searchPageSimpleTest() {
         Team teamA = new Team("teamA");
@@ -98,6 +238,388 @@ class MemberRepositoryTest {
         assertThat(results2.getSize()).isEqualTo(3);
     }
     
+    @Test
+    void searchPageComplexCountTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50)); // team 없음
+
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        // team 조건이 없으면 join 없이 count -> team이 없는 member도 포함
+        MemberSearchCondition condition = new MemberSearchCondition();
+        assertThat(memberRepository.searchPageComplex(condition, pageRequest).getTotalElements()).isEqualTo(5);
+
+        condition.setTeamName("teamB");
+        assertThat(memberRepository.searchPageComplex(condition, pageRequest).getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void searchPageWindowTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(1, 3);
+
+        Page<MemberTeamDto> window = memberRepository.searchPageWindow(condition, pageRequest);
+        Page<MemberTeamDto> twoQuery = memberRepository.searchPageComplex(condition, pageRequest);
+
+        assertThat(window.getTotalElements()).isEqualTo(twoQuery.getTotalElements());
+        assertThat(window.getContent()).isEqualTo(twoQuery.getContent());
+
+        Page<MemberTeamDto> outOfRange = memberRepository.searchPageWindow(condition, PageRequest.of(5, 3));
+        assertThat(outOfRange.getContent()).isEmpty();
+        assertThat(outOfRange.getTotalElements()).isEqualTo(twoQuery.getTotalElements());
+    }
+
+    // count는 별도 connection에서 실행되므로 test transaction 없이 commit된 data로 확인
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void searchPageParallelTest() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team parallelTeam = new Team("parallelTeam");
+            em.persist(parallelTeam);
+            for (int i = 1; i <= 4; i++) {
+                em.persist(new Member("parallel" + i, i * 10, parallelTeam));
+            }
+        });
+
+        try {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setTeamName("parallelTeam");
+
+            // count가 필요한 페이지
+            Page<MemberTeamDto> parallel = memberRepository.searchPageParallel(condition, PageRequest.of(0, 3));
+            Page<MemberTeamDto> sequential = memberRepository.searchPageComplex(condition, PageRequest.of(0, 3));
+            assertThat(parallel.getTotalElements()).isEqualTo(4);
+            assertThat(parallel.getContent()).isEqualTo(sequential.getContent());
+
+            // 전용 pool도 p6spy를 거치므로 요청의 statement 집계에 포함(contents + count)
+            jdbcStatementCounter.start();
+            memberRepository.searchPageParallel(condition, PageRequest.of(0, 3));
+            assertThat(jdbcStatementCounter.finish().getStatements()).isEqualTo(2);
+
+            // 짧은 페이지 -> count 취소, contents 수로 total 계산
+            Page<MemberTeamDto> shortPage = memberRepository.searchPageParallel(condition, PageRequest.of(0, 10));
+            assertThat(shortPage.getTotalElements()).isEqualTo(4);
+            assertThat(shortPage.getContent()).hasSize(4);
+
+            // 전용 thread가 모두 사용 중이면 기다리지 않고 요청 thread에서 count
+            CountDownLatch release = new CountDownLatch(1);
+            List<CountQueryExecutor.CountTask> busy = new ArrayList<>();
+            try {
+                for (int i = 0; i < countPoolSize; i++) {
+                    busy.add(countQueryExecutor.submit(factory -> {
+                        awaitQuietly(release);
+                        return 0L;
+                    }, () -> 0L));
+                }
+                Page<MemberTeamDto> fallback = memberRepository.searchPageParallel(condition, PageRequest.of(0, 3));
+                assertThat(fallback.getTotalElements()).isEqualTo(4);
+            } finally {
+                release.countDown();
+                busy.forEach(CountQueryExecutor.CountTask::get);
+            }
+        } finally {
+            tx.executeWithoutResult(status -> {
+                em.createQuery("delete from Member m where m.username like 'parallel%'").executeUpdate();
+                em.createQuery("delete from Team t where t.name = 'parallelTeam'").executeUpdate();
+            });
+        }
+    }
+
+    @Test
+    void searchSliceTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 2));
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(first.hasNext()).isTrue();
+
+        // 딱 맞게 끝나는 페이지는 다음 페이지 없음
+        Slice<MemberTeamDto> exact = memberRepository.searchSlice(condition, PageRequest.of(0, 5));
+        assertThat(exact.getContent()).hasSize(5);
+        assertThat(exact.hasNext()).isFalse();
+
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(2, 2));
+        assertThat(last.getContent()).hasSize(1);
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    void searchByCursorTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        CursorSlice<MemberTeamDto> first = memberRepository.searchByCursor(condition, null, PageRequest.of(0, 3));
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.isHasNext()).isTrue();
+
+        CursorSlice<MemberTeamDto> second = memberRepository.searchByCursor(condition, first.getNextCursor(), PageRequest.of(0, 3));
+        assertThat(second.getContent()).extracting("username").containsExactly("member4");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+
+        PageRequest ageDesc = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "age"));
+        CursorSlice<MemberTeamDto> firstDesc = memberRepository.searchByCursor(condition, null, ageDesc);
+        CursorSlice<MemberTeamDto> secondDesc = memberRepository.searchByCursor(condition, firstDesc.getNextCursor(), ageDesc);
+        assertThat(firstDesc.getContent()).extracting("age").containsExactly(40, 30);
+        assertThat(secondDesc.getContent()).extracting("age").containsExactly(20, 10);
+    }
+
+    @Test
+    void lambdaProjectionsTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20));
+
+        List<MemberDto> bean = queryFactory.select(LambdaProjections.bean(MemberDto.class, member.username, member.age))
+                                           .from(member).orderBy(member.id.asc()).fetch();
+        List<MemberDto> fields = queryFactory.select(LambdaProjections.fields(MemberDto.class, member.username, member.age))
+                                             .from(member).orderBy(member.id.asc()).fetch();
+        List<UserDto> alias = queryFactory.select(LambdaProjections.bean(UserDto.class, member.username.as("name"), member.age))
+                                          .from(member).orderBy(member.id.asc()).fetch();
+        List<MemberTeamDto> constructor = queryFactory
+                .select(LambdaProjections.constructor(MemberTeamDto.class,
+                        member.id, member.username, member.age, team.id, team.name))
+                .from(member).leftJoin(member.team, team).orderBy(member.id.asc()).fetch();
+
+        List<MemberDto> reflection = queryFactory.select(Projections.bean(MemberDto.class, member.username, member.age))
+                                                 .from(member).orderBy(member.id.asc()).fetch();
+
+        assertThat(bean).isEqualTo(reflection);
+        assertThat(fields).isEqualTo(reflection);
+        assertThat(alias).extracting("name").containsExactly("member1", "member2");
+        assertThat(constructor).isEqualTo(memberRepository.search(new MemberSearchCondition()));
+
+        // primitive parameter(age)의 null은 Projections.constructor와 같이 기본값으로
+        Object[] values = {1L, "member1", null, null, null};
+        assertThat(LambdaProjections.constructor(MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name).newInstance(values))
+                .isEqualTo(Projections.constructor(MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name).newInstance(values));
+    }
+
+    @Test
+    void tableVersionsTest() {
+        long memberVersion = tableVersions.get("member");
+        long teamVersion = tableVersions.get("team");
+
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.flush();
+
+        long afterInsert = tableVersions.get("member");
+        assertThat(afterInsert).isGreaterThan(memberVersion);
+        assertThat(tableVersions.get("team")).isGreaterThan(teamVersion);
+
+        // bulk 연산도 증가(entity event가 발생하지 않는 경우)
+        queryFactory.update(member).set(member.age, member.age.add(1)).execute();
+        assertThat(tableVersions.get("member")).isGreaterThan(afterInsert);
+
+        // 조회는 증가하지 않음
+        long beforeSelect = tableVersions.get("member");
+        memberRepository.search(new MemberSearchCondition());
+        assertThat(tableVersions.get("member")).isEqualTo(beforeSelect);
+    }
+
+    @Test
+    void memberIndexParityTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 30; i++) {
+            em.persist(new Member("member" + i % 7, i, i % 3 == 0 ? teamA : i % 3 == 1 ? teamB : null));
+        }
+        em.flush();
+
+        // 16가지 조건 조합 x 값(없는 team/username 포함)
+        List<MemberSearchCondition> conditions = new ArrayList<>();
+        for (int shape = 0; shape < 16; shape++) {
+            for (String[] values : new String[][]{{"member3", "teamA"}, {"member5", "teamB"}, {"nobody", "noTeam"}}) {
+                MemberSearchCondition condition = new MemberSearchCondition();
+                condition.setUsername((shape & 1) != 0 ? values[0] : null);
+                condition.setTeamName((shape & 2) != 0 ? values[1] : null);
+                condition.setAgeGoe((shape & 4) != 0 ? 5 : null);
+                condition.setAgeLoe((shape & 8) != 0 ? 20 : null);
+                conditions.add(condition);
+            }
+        }
+
+        // index load 전(querydsl)
+        List<List<MemberTeamDto>> expected = conditions.stream().map(memberRepository::search).toList();
+        List<Page<MemberTeamDto>> expectedPages = conditions.stream().map(c -> memberRepository.searchPageComplex(c, PageRequest.of(1, 3))).toList();
+
+        memberIndex.load();
+        try {
+            for (int i = 0; i < conditions.size(); i++) {
+                // querydsl 쪽은 order by가 없으므로 순서 무관 비교
+                assertThat(memberRepository.search(conditions.get(i))).containsExactlyInAnyOrderElementsOf(expected.get(i));
+
+                Page<MemberTeamDto> page = memberRepository.searchPageComplex(conditions.get(i), PageRequest.of(1, 3));
+                assertThat(page.getTotalElements()).isEqualTo(expectedPages.get(i).getTotalElements());
+                assertThat(page.getContent()).hasSameSizeAs(expectedPages.get(i).getContent());
+                assertThat(expected.get(i)).containsAll(page.getContent());
+            }
+        } finally {
+            memberIndex.clear();
+        }
+    }
+
+    // 변경은 commit 후 반영되므로 test transaction 없이 확인
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void memberIndexListenerTest() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        memberIndex.load();
+        try {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername("indexed");
+
+            // rollback된 변경은 반영되지 않음
+            tx.executeWithoutResult(status -> {
+                em.persist(new Member("indexed", 10));
+                em.flush();
+                status.setRollbackOnly();
+            });
+            assertThat(memberIndex.search(condition)).isEmpty();
+
+            Long memberId = tx.execute(status -> {
+                Member indexed = new Member("indexed", 10);
+                em.persist(indexed);
+                return indexed.getId();
+            });
+            assertThat(memberIndex.search(condition)).extracting(MemberTeamDto::getAge, MemberTeamDto::getTeamName)
+                                                     .containsExactly(tuple(10, null));
+
+            tx.executeWithoutResult(status -> {
+                Team indexTeam = new Team("indexTeam");
+                em.persist(indexTeam);
+                em.find(Member.class, memberId).changeTeam(indexTeam);
+            });
+            assertThat(memberIndex.search(condition)).extracting(MemberTeamDto::getTeamName).containsExactly("indexTeam");
+
+            tx.executeWithoutResult(status -> em.remove(em.find(Member.class, memberId)));
+            assertThat(memberIndex.search(condition)).isEmpty();
+        } finally {
+            memberIndex.clear();
+            tx.executeWithoutResult(status -> {
+                em.createQuery("delete from Member m where m.username = 'indexed'").executeUpdate();
+                em.createQuery("delete from Team t where t.name = 'indexTeam'").executeUpdate();
+            });
+        }
+    }
+
+    @Test
+    void teamAggregateSnapshotTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Team otherTeamA = new Team("teamA"); // 같은 이름은 하나로 집계
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(otherTeamA);
+        for (int i = 0; i < 40; i++) {
+            em.persist(new Member("member" + i, i, i % 3 == 0 ? teamA : i % 3 == 1 ? teamB : otherTeamA));
+        }
+        em.persist(new Member("noTeam", 99));
+        em.flush();
+
+        List<Tuple> expected = queryFactory
+                .select(team.name, member.count(), member.age.sum(), member.age.avg(), member.age.max(), member.age.min())
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.name)
+                .orderBy(team.name.asc())
+                .fetch();
+
+        teamAggregateSnapshot.refresh();
+        List<TeamAgeStats> stats = teamAggregateSnapshot.teamAgeStats();
+
+        assertThat(stats).hasSize(2);
+        for (int i = 0; i < expected.size(); i++) {
+            Tuple row = expected.get(i);
+            TeamAgeStats stat = stats.get(i);
+            assertThat(stat.getTeamName()).isEqualTo(row.get(team.name));
+            assertThat(stat.getCount()).isEqualTo(row.get(member.count()));
+            assertThat(stat.getSum()).isEqualTo(((Number) row.get(member.age.sum())).longValue());
+            assertThat(stat.getAvg()).isEqualTo(row.get(member.age.avg()));
+            assertThat(stat.getMax()).isEqualTo(row.get(member.age.max()));
+            assertThat(stat.getMin()).isEqualTo(row.get(member.age.min()));
+        }
+    }
+
+    // test exact-count-threshold : 10
+    @Test
+    void searchPageEstimatedTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 40; i++) {
+            em.persist(new Member("member" + i % 20, i, teamA));
+        }
+        em.flush();
+        memberStatistics.refresh();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+
+        // 추정값(age histogram : 30)이 크면 count query 없이 추정 total
+        EstimatedPage<MemberTeamDto> estimated = memberRepository.searchPageEstimated(condition, PageRequest.of(0, 5), false);
+        assertThat(estimated.isExact()).isFalse();
+        assertThat(estimated.getTotalElements()).isEqualTo(30);
+        assertThat(estimated.getContent()).hasSize(5);
+
+        // 요청하면 정확한 count
+        EstimatedPage<MemberTeamDto> exact = memberRepository.searchPageEstimated(condition, PageRequest.of(0, 5), true);
+        assertThat(exact.isExact()).isTrue();
+        assertThat(exact.getTotalElements()).isEqualTo(30);
+
+        // 추정값이 작으면(username 1/20 x age 30/40 -> 2) 정확한 count
+        condition.setUsername("member15");
+        EstimatedPage<MemberTeamDto> small = memberRepository.searchPageEstimated(condition, PageRequest.of(0, 1), false);
+        assertThat(small.isExact()).isTrue();
+        assertThat(small.getTotalElements()).isEqualTo(2);
+
+        // 마지막 페이지는 contents 수로 정확한 total
+        condition.setUsername(null);
+        EstimatedPage<MemberTeamDto> last = memberRepository.searchPageEstimated(condition, PageRequest.of(4, 7), false); // 28 ~ 29
+        assertThat(last.isExact()).isTrue();
+        assertThat(last.getTotalElements()).isEqualTo(30);
+    }
+
     @Test
     void queryDslPredicateExecutorTest() {
         Iterable<Member> member1 = memberRepository.findAll(member.age.between(10, 40).and(member.username.eq("member1")));
@@ -107,4 +629,12 @@ class MemberRepositoryTest {
         }
     }
 
-}
\ No newline at end of file
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.minwoo.querydsl.service;
+
+import com.minwoo.querydsl.dto.MemberSearchCondition;
+import com.minwoo.querydsl.dto.MemberTeamDto;
+import com.minwoo.querydsl.entity.Member;
+import com.minwoo.querydsl.repository.MemberIndex;
+import com.minwoo.querydsl.repository.MemberJpaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.minwoo.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// chunk마다 별도 transaction(REQUIRES_NEW)이므로 test transaction 없이 commit된 data로 확인(test chunk-size: 2)
+@SpringBootTest
+class BulkOperationServiceTest {
+
+    @Autowired BulkOperationService bulkOperationService;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberIndex memberIndex;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            for (int i = 1; i <= 5; i++) {
+                em.persist(new Member("bulk" + i, i * 10));
+                if(i == 2) {
+                    em.persist(new Member("keep", 25)); // 같은 id 범위지만 조건에 해당하지 않음
+                }
+            }
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(status -> em.createQuery("delete from Member m where m.username like 'bulk%' or m.username = 'keep'").executeUpdate());
+    }
+
+    @Test
+    void updateInChunks() {
+        List<BulkOperationService.Progress> progresses = new ArrayList<>();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            Member bulk1 = memberJpaRepository.findByUsername("bulk1").get(0);
+            Member keep = memberJpaRepository.findByUsername("keep").get(0);
+
+            long updated = bulkOperationService.update(member, member.id, member.username.startsWith("bulk"),
+                    update -> update.set(member.age, member.age.add(1)), progresses::add);
+
+            assertThat(updated).isEqualTo(5);
+            assertThat(em.contains(bulk1)).isFalse(); // chunk가 변경한 entity는 detach됨
+            assertThat(em.contains(keep)).isTrue(); // 변경되지 않은 entity는 그대로
+            assertThat(memberJpaRepository.findByUsername("bulk1").get(0).getAge()).isEqualTo(11);
+        });
+
+        assertThat(progresses).extracting("chunk").containsExactly(1L, 2L, 3L);
+        assertThat(progresses.get(2).totalRows()).isEqualTo(5);
+        assertThat(memberJpaRepository.findByUsername("keep").get(0).getAge()).isEqualTo(25);
+    }
+
+    @Test
+    void deleteInChunks() {
+        long deleted = bulkOperationService.delete(member, member.id, member.username.startsWith("bulk"), progress -> {});
+
+        assertThat(deleted).isEqualTo(5);
+        assertThat(memberJpaRepository.findByUsername("keep")).hasSize(1);
+    }
+
+    // jpql bulk update는 MemberIndexListener가 감지하지 못하므로 끝난 뒤 index를 다시 load
+    @Test
+    void reloadMemberIndex() {
+        memberIndex.load();
+        try {
+            bulkOperationService.update(member, member.id, member.username.startsWith("bulk"),
+                    update -> update.set(member.age, member.age.add(1)), progress -> {});
+
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername("bulk1");
+            assertThat(memberIndex.isReady()).isTrue();
+            assertThat(memberIndex.search(condition)).extracting(MemberTeamDto::getAge).containsExactly(11);
+        } finally {
+            memberIndex.clear();
+        }
+    }
+
+    // chunk는 다른 connection이라 호출 transaction의 lock을 기다리게 되므로 쓰기 transaction 안에서는 거부
+    @Test
+    void rejectReadWriteTransaction() {
+        assertThatThrownBy(() -> tx.executeWithoutResult(status ->
+                bulkOperationService.update(member, member.id, member.username.startsWith("bulk"),
+                        update -> update.set(member.age, 0), progress -> {})))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(memberJpaRepository.findByUsername("bulk1").get(0).getAge()).isEqualTo(10);
+    }
+
+}
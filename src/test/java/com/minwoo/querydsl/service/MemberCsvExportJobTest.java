@@ -0,0 +1,94 @@
+package com.minwoo.querydsl.service;
+
+import com.minwoo.querydsl.entity.Member;
+import com.minwoo.querydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// partition은 다른 thread/connection에서 읽으므로 test transaction 없이 commit된 data로 확인
+@SpringBootTest
+class MemberCsvExportJobTest {
+
+    @Autowired MemberCsvExportJob memberCsvExportJob;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    // 다른 test class가 commit한 member가 있을 수 있으므로 export한 member만 확인
+    @Test
+    void export(@TempDir Path dir) throws IOException {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long others = tx.execute(status -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult());
+        tx.executeWithoutResult(status -> {
+            Team exportTeam = new Team("export,Team");
+            em.persist(exportTeam);
+            for (int i = 1; i <= 10; i++) {
+                em.persist(new Member("export" + i, i, i % 2 == 0 ? exportTeam : null));
+            }
+        });
+
+        try {
+            MemberCsvExportJob.Result plain = memberCsvExportJob.export(dir.resolve("members.csv"), false, 3);
+            List<String> lines = Files.readAllLines(plain.file());
+            assertThat(plain.rows()).isEqualTo(others + 10);
+            assertThat(lines).hasSize((int) others + 11);
+            assertThat(lines.get(0)).isEqualTo("member_id,username,age,team_id,team_name");
+
+            List<String> exported = lines.stream().filter(line -> line.split(",")[1].startsWith("export")).toList();
+            assertThat(exported).extracting(line -> line.split(",")[1])
+                                .containsExactly("export1", "export2", "export3", "export4", "export5",
+                                                 "export6", "export7", "export8", "export9", "export10"); // member_id 순
+            assertThat(exported.get(1)).endsWith(",\"export,Team\"");
+            assertThat(exported.get(0)).endsWith(",1,,");
+            if(posix(dir)) { // 임시 파일의 rw------- 가 아닌 일반 파일 권한
+                assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(plain.file()))).isEqualTo("rw-r--r--");
+            }
+
+            // partition별 gzip member를 이어 붙인 파일도 한 번에 읽힘
+            MemberCsvExportJob.Result gzip = memberCsvExportJob.export(dir.resolve("members.csv.gz"), true, 3);
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(gzip.file()))) {
+                assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList()).isEqualTo(lines);
+            }
+
+            // 같은 파일로 다시 export하면 완성된 파일로 교체, 임시/part 파일은 남지 않음
+            Files.writeString(plain.file(), "old");
+            if(posix(dir)) {
+                Files.setPosixFilePermissions(plain.file(), PosixFilePermissions.fromString("rw-rw----"));
+            }
+            memberCsvExportJob.export(plain.file(), false, 3);
+            assertThat(Files.readAllLines(plain.file())).isEqualTo(lines);
+            if(posix(dir)) { // 기존 파일의 권한 유지
+                assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(plain.file()))).isEqualTo("rw-rw----");
+            }
+            try (Stream<Path> files = Files.list(dir)) {
+                assertThat(files.map(path -> path.getFileName().toString())).containsExactlyInAnyOrder("members.csv", "members.csv.gz");
+            }
+        } finally {
+            tx.executeWithoutResult(status -> {
+                em.createQuery("delete from Member m where m.username like 'export%'").executeUpdate();
+                em.createQuery("delete from Team t where t.name = 'export,Team'").executeUpdate();
+            });
+        }
+    }
+
+    private static boolean posix(Path dir) {
+        return dir.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+}
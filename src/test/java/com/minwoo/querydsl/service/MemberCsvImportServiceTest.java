@@ -0,0 +1,99 @@
+package com.minwoo.querydsl.service;
+
+import com.minwoo.querydsl.entity.Member;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// batch마다 별도 transaction(REQUIRES_NEW)이므로 test transaction 없이 commit된 data로 확인(test batch-size: 3)
+@SpringBootTest
+class MemberCsvImportServiceTest {
+
+    @Autowired MemberCsvImportService memberCsvImportService;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    // batch-size 3 : 1번째 batch 성공, 2번째 batch는 username 길이 초과로 rollback, 3번째 batch는 계속 진행
+    @Test
+    void importCsv() throws IOException {
+        String csv = "username,age,team_name\n"
+                + "import1,10,importTeamA\n"
+                + "import2,20,\"import,TeamB\"\n"
+                + "import3,abc,importTeamA\n"
+                + "import4,40,\n"
+                + "import5,50,importTeamA\n"
+                + "x".repeat(300) + ",60,importTeamA\n"
+                + "import7,70,importTeamA\n"
+                + "import8,80,\"import,TeamB\"\n"
+                + "import9,90\n";
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            MemberCsvImportService.Result result = memberCsvImportService.importCsv(input(csv), true);
+
+            assertThat(result.rows()).isEqualTo(9);
+            assertThat(result.inserted()).isEqualTo(5);
+            assertThat(result.failed()).isEqualTo(4);
+            assertThat(result.errors()).extracting(MemberCsvImportService.Error::fromLine, MemberCsvImportService.Error::toLine)
+                                       .containsExactly(tuple(4L, 4L), tuple(6L, 8L));
+            assertThat(result.errors().get(0).message()).contains("abc");
+
+            List<Member> imported = tx.execute(status -> em.createQuery(
+                    "select m from Member m left join fetch m.team where m.username like 'import%' order by m.username", Member.class)
+                    .getResultList());
+            assertThat(imported).extracting(Member::getUsername).containsExactly("import1", "import2", "import4", "import8", "import9");
+            assertThat(imported).extracting(m -> m.getTeam() == null ? null : m.getTeam().getName())
+                                .containsExactly("importTeamA", "import,TeamB", null, "import,TeamB", null);
+            assertThat(imported.get(1).getTeam().getId()).isEqualTo(imported.get(3).getTeam().getId()); // 같은 이름은 한 번만 생성
+        } finally {
+            tx.executeWithoutResult(status -> {
+                em.createQuery("delete from Member m where m.username like 'import%'").executeUpdate();
+                em.createQuery("delete from TeamStats s where s.teamId in (select t.id from Team t where t.name like 'import%')").executeUpdate();
+                em.createQuery("delete from Team t where t.name like 'import%'").executeUpdate();
+            });
+        }
+    }
+
+    // 닫히지 않은 "는 파일 끝까지 한 record로 읽히므로 그 범위를 오류로 기록, 앞에서 모아 둔 batch는 insert
+    @Test
+    void unterminatedQuote() throws IOException {
+        String csv = "username,age,team_name\n"
+                + "import1,10,\n"
+                + "import2,20,\"importTeam\n"
+                + "import3,30,\n";
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            MemberCsvImportService.Result result = memberCsvImportService.importCsv(input(csv), true);
+
+            assertThat(result.rows()).isEqualTo(2);
+            assertThat(result.inserted()).isEqualTo(1);
+            assertThat(result.failed()).isEqualTo(1);
+            assertThat(result.errors()).extracting(MemberCsvImportService.Error::fromLine, MemberCsvImportService.Error::toLine)
+                                       .containsExactly(tuple(3L, 4L));
+            assertThat(result.errors().get(0).message()).contains("unterminated quote");
+            List<String> imported = tx.execute(status -> em.createQuery("select m.username from Member m where m.username like 'import%'", String.class)
+                                                           .getResultList());
+            assertThat(imported).containsExactly("import1");
+        } finally {
+            tx.executeWithoutResult(status -> em.createQuery("delete from Member m where m.username like 'import%'").executeUpdate());
+        }
+    }
+
+    private static InputStream input(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
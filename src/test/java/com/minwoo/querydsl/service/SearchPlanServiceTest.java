@@ -0,0 +1,110 @@
+package com.minwoo.querydsl.service;
+
+import com.minwoo.querydsl.dto.MemberSearchCondition;
+import com.minwoo.querydsl.dto.SearchPlan;
+import com.minwoo.querydsl.entity.Member;
+import com.minwoo.querydsl.entity.Team;
+import com.minwoo.querydsl.repository.InvalidSearchConditionException;
+import com.minwoo.querydsl.repository.MemberIndex;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class SearchPlanServiceTest {
+
+    @Autowired SearchPlanService searchPlanService;
+    @Autowired MemberIndex memberIndex;
+    @Autowired EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 20; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+        em.flush();
+    }
+
+    @Test
+    void explainAll() {
+        List<SearchPlan> plans = searchPlanService.explainAll(new MemberSearchCondition());
+
+        // 16가지 조합 모두 contents + count query(teamName 조건은 처음 한 번 TeamCache 조회가 더 있음)
+        assertThat(plans).hasSizeGreaterThanOrEqualTo(32);
+        assertThat(plans.stream().map(SearchPlan::getShape).distinct()).hasSize(16).contains("none", "username+teamName+ageGoe+ageLoe");
+        assertThat(plans).allMatch(plan -> !plan.getPlan().isEmpty());
+
+        // username 조건은 idx_member_username 사용
+        assertThat(plans).filteredOn(plan -> plan.getShape().equals("username"))
+                         .allMatch(plan -> !plan.getFullScanTables().contains("member"));
+        // 조건이 없으면 전체 조회
+        assertThat(plans).filteredOn(plan -> plan.getShape().equals("none"))
+                         .anyMatch(SearchPlan::isFullScan);
+    }
+
+    // MemberIndex가 조회를 대신하는 중에도 db sql의 실행 계획
+    @Test
+    void explainWithMemberIndex() {
+        memberIndex.load();
+        try {
+            List<SearchPlan> plans = searchPlanService.explainAll(new MemberSearchCondition());
+
+            assertThat(plans.stream().map(SearchPlan::getShape).distinct()).hasSize(16);
+            assertThat(plans).filteredOn(plan -> plan.getShape().equals("none"))
+                             .anyMatch(SearchPlan::isFullScan);
+        } finally {
+            memberIndex.clear();
+        }
+    }
+
+    // 없는 team은 Impossible WHERE가 되어 full scan 여부를 알 수 없으므로 거부
+    @Test
+    void unknownTeam() {
+        MemberSearchCondition sample = new MemberSearchCondition();
+        sample.setTeamName("noTeam");
+
+        assertThatThrownBy(() -> searchPlanService.explainAll(sample))
+                .isInstanceOf(InvalidSearchConditionException.class);
+    }
+
+    // test db 종류와 관계없이 mysql, h2 EXPLAIN 결과의 full scan 판정 확인
+    @Test
+    void mysqlFullScanTables() {
+        List<Map<String, Object>> plan = List.of(
+                Map.of("id", 1, "table", "m1_0", "type", "ALL"),
+                Map.of("id", 1, "table", "t1_0", "type", "eq_ref"));
+
+        assertThat(SearchPlanService.fullScanTables(plan)).containsExactly("m1_0");
+    }
+
+    @Test
+    void h2FullScanTables() {
+        List<Map<String, Object>> plan = List.of(Map.of("plan",
+                "SELECT \"m1_0\".\"member_id\" FROM \"public\".\"member\" \"m1_0\" /* public.member.tableScan */ " +
+                "LEFT OUTER JOIN \"public\".\"team\" \"t1_0\" /* public.primary_key_2: team_id = m1_0.team_id */ ON 1=1"));
+
+        assertThat(SearchPlanService.fullScanTables(plan)).containsExactly("member");
+    }
+
+    @Test
+    void h2IndexScan() {
+        List<Map<String, Object>> plan = List.of(Map.of("plan",
+                "SELECT \"m1_0\".\"member_id\" FROM \"public\".\"member\" \"m1_0\" /* public.idx_member_username: username = ?1 */ " +
+                "WHERE \"m1_0\".\"username\" = ?1"));
+
+        assertThat(SearchPlanService.fullScanTables(plan)).isEmpty();
+    }
+
+}
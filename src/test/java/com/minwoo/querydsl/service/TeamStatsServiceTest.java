@@ -0,0 +1,98 @@
+package com.minwoo.querydsl.service;
+
+import com.minwoo.querydsl.entity.Member;
+import com.minwoo.querydsl.entity.Team;
+import com.minwoo.querydsl.entity.TeamStats;
+import com.minwoo.querydsl.repository.MemberJpaRepository;
+import com.minwoo.querydsl.repository.TeamStatsRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.minwoo.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// team_stats는 commit 직전에 반영되므로 test transaction 없이 확인
+@SpringBootTest
+class TeamStatsServiceTest {
+
+    @Autowired TeamStatsService teamStatsService;
+    @Autowired TeamStatsRepository teamStatsRepository;
+    @Autowired BulkOperationService bulkOperationService;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void teamStats() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long[] teamIds = tx.execute(status -> {
+            Team statsA = new Team("statsA");
+            Team statsB = new Team("statsB");
+            em.persist(statsA);
+            em.persist(statsB);
+            em.persist(new Member("stats1", 10, statsA));
+            em.persist(new Member("stats2", 20, statsA));
+            em.persist(new Member("stats3", 30, statsB));
+            return new Long[]{statsA.getId(), statsB.getId()};
+        });
+        Long teamA = teamIds[0];
+        Long teamB = teamIds[1];
+
+        try {
+            assertStats(teamA, 2, 30, 10, 20);
+            assertStats(teamB, 1, 30, 30, 30);
+
+            // team 이동
+            tx.executeWithoutResult(status -> memberJpaRepository.findByUsername("stats1").get(0).changeTeam(em.find(Team.class, teamB)));
+            assertStats(teamA, 1, 20, 20, 20);
+            assertStats(teamB, 2, 40, 10, 30);
+
+            // rollback은 반영되지 않음
+            tx.executeWithoutResult(status -> {
+                em.remove(memberJpaRepository.findByUsername("stats2").get(0));
+                em.flush();
+                status.setRollbackOnly();
+            });
+            assertStats(teamA, 1, 20, 20, 20);
+
+            // 삭제(min이 빠지면 다시 계산)
+            tx.executeWithoutResult(status -> em.remove(memberJpaRepository.findByUsername("stats1").get(0)));
+            assertStats(teamB, 1, 30, 30, 30);
+
+            // bulk update(chunk 단위 반영)
+            bulkOperationService.update(member, member.id, member.username.startsWith("stats"),
+                    update -> update.set(member.age, member.age.add(5)), progress -> {});
+            assertStats(teamA, 1, 25, 25, 25);
+            assertStats(teamB, 1, 35, 35, 35);
+
+            // 틀어진 값은 rebuild로 보정
+            tx.executeWithoutResult(status -> em.createNativeQuery("update team_stats set member_count = 100").executeUpdate());
+            teamStatsService.rebuild();
+            assertStats(teamA, 1, 25, 25, 25);
+
+            // row가 없는 team(통계 도입 전 data)은 rebuild가 만듦
+            tx.executeWithoutResult(status -> em.createNativeQuery("delete from team_stats where team_id = " + teamB).executeUpdate());
+            teamStatsService.rebuild();
+            assertStats(teamB, 1, 35, 35, 35);
+        } finally {
+            tx.executeWithoutResult(status -> {
+                em.createQuery("delete from Member m where m.username like 'stats%'").executeUpdate();
+                em.createQuery("delete from Team t where t.name like 'stats%'").executeUpdate();
+                em.createQuery("delete from TeamStats s where s.teamId in :teamIds").setParameter("teamIds", List.of(teamIds)).executeUpdate();
+            });
+        }
+    }
+
+    private void assertStats(Long teamId, long count, long ageSum, int minAge, int maxAge) {
+        TeamStats stats = teamStatsRepository.findById(teamId).orElseThrow();
+        assertThat(stats).extracting(TeamStats::getMemberCount, TeamStats::getAgeSum, TeamStats::getMinAge, TeamStats::getMaxAge)
+                         .containsExactly(count, ageSum, minAge, maxAge);
+    }
+
+}